@@ -0,0 +1,113 @@
+/**
+ * Тест создания товаров с одинаковым названием (коллизии slug)
+ *
+ * Все запросы создают товар с одним и тем же названием, поэтому каждый следующий
+ * получает slug вида <name>-N. Время создания не должно расти с числом коллизий.
+ *
+ * Запуск:
+ *   k6 run slug-collision-test.js                       # 1000 товаров, 10 VUs
+ *   k6 run -e VUS=50 slug-collision-test.js             # параллельные вставки (гонки за slug)
+ *   k6 run -e COUNT=5000 -e NAME="iPhone 15 Case" slug-collision-test.js
+ */
+
+import http from 'k6/http';
+import { check, fail } from 'k6';
+import { Counter, Trend } from 'k6/metrics';
+import { textSummary } from 'https://jslib.k6.io/k6-summary/0.0.2/index.js';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS) || 10;
+const COUNT = parseInt(__ENV.COUNT) || 1000;
+// По умолчанию уникальное название на каждый запуск, чтобы повторные прогоны были сравнимы
+const NAME = __ENV.NAME || `Slug Collision ${Date.now()}`;
+
+const createDuration = new Trend('slug_create_duration', true);
+const createErrors = new Counter('slug_create_errors');
+
+export const options = {
+    scenarios: {
+        collisions: {
+            executor: 'shared-iterations',
+            vus: VUS,
+            iterations: COUNT,
+            maxDuration: '10m',
+        },
+    },
+
+    thresholds: {
+        slug_create_duration: ['p(95)<200', 'p(99)<500'],
+        slug_create_errors: ['count==0'],
+    },
+};
+
+export function setup() {
+    const response = http.get(`${BASE_URL}/api/v1/categories`);
+    const categories = response.status === 200 ? JSON.parse(response.body).data : null;
+    if (!categories || categories.length === 0) {
+        fail('Нет категорий: сначала заполните базу (scripts/generate_data.sql)');
+    }
+    return { categoryId: categories[0].id, name: NAME };
+}
+
+export default function (data) {
+    const payload = JSON.stringify({
+        name: data.name,
+        price: 19.99,
+        category_id: data.categoryId,
+        status: 'DRAFT',
+    });
+
+    const response = http.post(`${BASE_URL}/api/v1/products`, payload, {
+        headers: { 'Content-Type': 'application/json' },
+        tags: { scenario: 'slug_collision' },
+    });
+
+    createDuration.add(response.timings.duration);
+    const ok = check(response, {
+        'status 201': (r) => r.status === 201,
+        'slug has suffix or base': (r) => {
+            const body = JSON.parse(r.body);
+            return body.data && /^[a-z0-9_-]+(-[1-9][0-9]*)?$/.test(body.data.slug);
+        },
+    });
+    if (!ok) {
+        createErrors.add(1);
+    }
+}
+
+export function handleSummary(data) {
+    const metrics = data.metrics || {};
+    const duration = metrics.slug_create_duration?.values || {};
+    const httpReqs = metrics.http_reqs?.values || {};
+    const errors = metrics.slug_create_errors?.values || {};
+
+    const summary = `
+================================================================================
+                       ТЕСТ КОЛЛИЗИЙ SLUG ПРИ СОЗДАНИИ
+================================================================================
+
+Конфигурация: ${COUNT} товаров с названием "${NAME}", ${VUS} VUs
+
+Результаты:
+  ┌─────────────────────────────────────────────────────────────────────────────
+  │ RPS:              ${(httpReqs.rate || 0).toFixed(2)} req/s
+  │ Ошибок создания:  ${errors.count || 0}
+  ├─────────────────────────────────────────────────────────────────────────────
+  │ Create latency:
+  │   - Avg:          ${(duration.avg || 0).toFixed(2)}ms
+  │   - Min:          ${(duration.min || 0).toFixed(2)}ms
+  │   - Max:          ${(duration.max || 0).toFixed(2)}ms
+  │   - P50:          ${(duration.med || 0).toFixed(2)}ms
+  │   - P90:          ${(duration['p(90)'] || 0).toFixed(2)}ms
+  │   - P95:          ${(duration['p(95)'] || 0).toFixed(2)}ms
+  │   - P99:          ${(duration['p(99)'] || 0).toFixed(2)}ms
+  └─────────────────────────────────────────────────────────────────────────────
+
+================================================================================
+`;
+
+    console.log(summary);
+    return {
+        stdout: textSummary(data, { indent: '  ', enableColors: true }),
+    };
+}
@@ -0,0 +1,79 @@
+-- ==============================================
+-- Ручная миграция: удаление повторных отзывов одного пользователя на один товар
+--
+-- Нужна, только если приложение не стартует из-за ошибки создания uk_reviews_product_user.
+-- Остаётся самый ранний отзыв; удаляемые строки сохраняются в reviews_duplicates_backup,
+-- агрегаты рейтинга товаров уменьшаются на удалённые оценки.
+--
+-- Использование:
+--   psql -U postgres -d product_service -f scripts/dedupe_reviews.sql
+-- ==============================================
+
+-- Что будет удалено
+SELECT product_id, user_id, COUNT(*) AS reviews
+FROM reviews
+GROUP BY product_id, user_id
+HAVING COUNT(*) > 1
+ORDER BY reviews DESC, product_id, user_id;
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS reviews_duplicates_backup (
+    LIKE reviews,
+    removed_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+WITH duplicates AS (
+    SELECT id
+    FROM (
+        SELECT id, row_number() OVER (PARTITION BY product_id, user_id ORDER BY created_at, id) AS rn
+        FROM reviews
+    ) d
+    WHERE d.rn > 1
+),
+removed AS (
+    DELETE FROM reviews r
+    USING duplicates d
+    WHERE r.id = d.id
+    RETURNING r.*
+),
+backup AS (
+    INSERT INTO reviews_duplicates_backup
+    SELECT removed.* FROM removed
+    RETURNING product_id, rating
+),
+delta AS (
+    SELECT product_id,
+           SUM(rating) AS rating_sum,
+           COUNT(*) AS rating_count,
+           CAST(ARRAY[
+               COUNT(*) FILTER (WHERE rating = 1),
+               COUNT(*) FILTER (WHERE rating = 2),
+               COUNT(*) FILTER (WHERE rating = 3),
+               COUNT(*) FILTER (WHERE rating = 4),
+               COUNT(*) FILTER (WHERE rating = 5)
+           ] AS integer[]) AS rating_histogram
+    FROM backup
+    GROUP BY product_id
+)
+UPDATE products p SET
+    rating_sum = GREATEST(p.rating_sum - d.rating_sum, 0),
+    rating_count = GREATEST(p.rating_count - d.rating_count, 0),
+    rating_histogram = ARRAY[
+        GREATEST(p.rating_histogram[1] - d.rating_histogram[1], 0),
+        GREATEST(p.rating_histogram[2] - d.rating_histogram[2], 0),
+        GREATEST(p.rating_histogram[3] - d.rating_histogram[3], 0),
+        GREATEST(p.rating_histogram[4] - d.rating_histogram[4], 0),
+        GREATEST(p.rating_histogram[5] - d.rating_histogram[5], 0)
+    ],
+    rating_avg = CASE WHEN p.rating_count > d.rating_count
+        THEN round(CAST(p.rating_sum - d.rating_sum AS numeric) / (p.rating_count - d.rating_count), 4)
+        ELSE 0 END
+FROM delta d
+WHERE p.id = d.product_id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_reviews_product_user ON reviews (product_id, user_id);
+
+COMMIT;
+
+SELECT COUNT(*) AS backed_up_reviews FROM reviews_duplicates_backup;
@@ -77,8 +77,33 @@ BEGIN
     DROP INDEX IF EXISTS idx_products_slug;
     DROP INDEX IF EXISTS idx_products_category;
     DROP INDEX IF EXISTS idx_products_status;
+    DROP INDEX IF EXISTS idx_products_brand_name;
+    DROP INDEX IF EXISTS idx_products_created_at_id;
+    DROP INDEX IF EXISTS idx_products_status_category_created_at;
+    DROP INDEX IF EXISTS idx_products_status_created_at;
+    DROP INDEX IF EXISTS idx_products_category_created_at;
+    DROP INDEX IF EXISTS idx_products_price_id;
+    DROP INDEX IF EXISTS idx_products_status_category_price;
+    DROP INDEX IF EXISTS idx_products_status_price;
+    DROP INDEX IF EXISTS idx_products_category_price;
+    DROP INDEX IF EXISTS idx_products_name_id;
+    DROP INDEX IF EXISTS idx_products_status_category_name;
+    DROP INDEX IF EXISTS idx_products_status_name;
+    DROP INDEX IF EXISTS idx_products_category_name;
+    DROP INDEX IF EXISTS idx_products_search_vector;
+    DROP INDEX IF EXISTS idx_products_name_trgm;
+    DROP INDEX IF EXISTS idx_products_attributes;
+    DROP INDEX IF EXISTS idx_products_on_sale_category_price;
+    DROP INDEX IF EXISTS idx_products_on_sale_price;
+    DROP INDEX IF EXISTS idx_products_slug_pattern;
+    DROP INDEX IF EXISTS idx_products_rating_id;
+    DROP INDEX IF EXISTS idx_products_updated_at_id;
+    DROP INDEX IF EXISTS idx_products_status_category_rating;
+    DROP INDEX IF EXISTS idx_products_status_rating;
+    DROP INDEX IF EXISTS idx_products_category_rating;
     DROP INDEX IF EXISTS idx_reviews_product;
     DROP INDEX IF EXISTS idx_reviews_user;
+    DROP INDEX IF EXISTS uk_reviews_product_user;
 
     -- ==============================================
     -- 3. Генерация продуктов
@@ -174,6 +199,30 @@ BEGIN
         END LOOP;
 
         DROP TABLE IF EXISTS temp_product_ids;
+
+        -- Агрегаты рейтинга (rating_sum / rating_count / rating_histogram / rating_avg)
+        RAISE NOTICE 'Computing rating aggregates...';
+        UPDATE products p SET
+            rating_sum = a.rating_sum,
+            rating_count = a.rating_count,
+            rating_histogram = a.rating_histogram,
+            rating_avg = ROUND(a.rating_sum::NUMERIC / a.rating_count, 4)
+        FROM (
+            SELECT product_id,
+                   SUM(rating) AS rating_sum,
+                   COUNT(*) AS rating_count,
+                   ARRAY[
+                       COUNT(*) FILTER (WHERE rating = 1),
+                       COUNT(*) FILTER (WHERE rating = 2),
+                       COUNT(*) FILTER (WHERE rating = 3),
+                       COUNT(*) FILTER (WHERE rating = 4),
+                       COUNT(*) FILTER (WHERE rating = 5)
+                   ]::INTEGER[] AS rating_histogram
+            FROM reviews
+            GROUP BY product_id
+        ) a
+        WHERE p.id = a.product_id;
+        COMMIT;
     END IF;
 
     -- ==============================================
@@ -185,8 +234,33 @@ BEGIN
     CREATE INDEX IF NOT EXISTS idx_products_slug ON products(slug);
     CREATE INDEX IF NOT EXISTS idx_products_category ON products(category_id);
     CREATE INDEX IF NOT EXISTS idx_products_status ON products(status);
+    CREATE INDEX IF NOT EXISTS idx_products_brand_name ON products(brand_name);
+    CREATE INDEX IF NOT EXISTS idx_products_created_at_id ON products(created_at DESC, id DESC);
+    CREATE INDEX IF NOT EXISTS idx_products_status_category_created_at ON products(status, category_id, created_at, id);
+    CREATE INDEX IF NOT EXISTS idx_products_status_created_at ON products(status, created_at, id);
+    CREATE INDEX IF NOT EXISTS idx_products_category_created_at ON products(category_id, created_at, id);
+    CREATE INDEX IF NOT EXISTS idx_products_price_id ON products(price, id);
+    CREATE INDEX IF NOT EXISTS idx_products_status_category_price ON products(status, category_id, price, id);
+    CREATE INDEX IF NOT EXISTS idx_products_status_price ON products(status, price, id);
+    CREATE INDEX IF NOT EXISTS idx_products_category_price ON products(category_id, price, id);
+    CREATE INDEX IF NOT EXISTS idx_products_name_id ON products(name, id);
+    CREATE INDEX IF NOT EXISTS idx_products_status_category_name ON products(status, category_id, name, id);
+    CREATE INDEX IF NOT EXISTS idx_products_status_name ON products(status, name, id);
+    CREATE INDEX IF NOT EXISTS idx_products_category_name ON products(category_id, name, id);
+    CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING gin (search_vector);
+    CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING gin (name gin_trgm_ops);
+    CREATE INDEX IF NOT EXISTS idx_products_attributes ON products USING gin (attributes jsonb_path_ops);
+    CREATE INDEX IF NOT EXISTS idx_products_on_sale_category_price ON products (category_id, price, id) WHERE compare_at_price > price;
+    CREATE INDEX IF NOT EXISTS idx_products_on_sale_price ON products (price, id) WHERE compare_at_price > price;
+    CREATE INDEX IF NOT EXISTS idx_products_slug_pattern ON products (slug text_pattern_ops);
+    CREATE INDEX IF NOT EXISTS idx_products_rating_id ON products(rating_avg DESC, id DESC);
+    CREATE INDEX IF NOT EXISTS idx_products_updated_at_id ON products(updated_at, id);
+    CREATE INDEX IF NOT EXISTS idx_products_status_category_rating ON products(status, category_id, rating_avg, id);
+    CREATE INDEX IF NOT EXISTS idx_products_status_rating ON products(status, rating_avg, id);
+    CREATE INDEX IF NOT EXISTS idx_products_category_rating ON products(category_id, rating_avg, id);
     CREATE INDEX IF NOT EXISTS idx_reviews_product ON reviews(product_id);
     CREATE INDEX IF NOT EXISTS idx_reviews_user ON reviews(user_id);
+    CREATE UNIQUE INDEX IF NOT EXISTS uk_reviews_product_user ON reviews(product_id, user_id);
 
     -- ==============================================
     -- 6. Анализ
@@ -0,0 +1,15 @@
+package kg.kazbekov.productservice.cache;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public record CategoryNode(
+        UUID id,
+        UUID parentId,
+        String name,
+        String slug,
+        String imageUrl,
+        Boolean isActive,
+        OffsetDateTime updatedAt
+) {
+}
@@ -0,0 +1,129 @@
+package kg.kazbekov.productservice.cache;
+
+import kg.kazbekov.productservice.dto.ResourceVersion;
+import kg.kazbekov.productservice.dto.category.CategoryResponse;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+public final class CategoryTree {
+
+    private static final Comparator<CategoryNode> BY_NAME = Comparator.comparing(CategoryNode::name);
+
+    private final Map<UUID, CategoryNode> nodes;
+    private final Map<String, UUID> idsBySlug;
+    private final Map<UUID, List<CategoryNode>> childrenByParent;
+    private final Map<UUID, CategoryResponse> responses;
+    private final List<CategoryResponse> roots;
+    private final String contentHash;
+    private final OffsetDateTime lastModified;
+
+    public CategoryTree(List<CategoryNode> allNodes) {
+        Map<UUID, CategoryNode> nodeMap = new HashMap<>();
+        Map<String, UUID> slugMap = new HashMap<>();
+        Map<UUID, List<CategoryNode>> children = new HashMap<>();
+        long hash = allNodes.size();
+        OffsetDateTime latest = null;
+        for (CategoryNode node : allNodes) {
+            // Сумма не зависит от порядка строк, а удаление категории меняет хеш даже без нового updatedAt
+            hash += 0x9E3779B97F4A7C15L * Objects.hash(node.id(), node.parentId(), node.name(), node.slug(),
+                    node.imageUrl(), node.isActive(), node.updatedAt());
+            if (node.updatedAt() != null && (latest == null || node.updatedAt().isAfter(latest))) {
+                latest = node.updatedAt();
+            }
+            nodeMap.put(node.id(), node);
+            slugMap.put(node.slug(), node.id());
+            if (node.parentId() != null) {
+                children.computeIfAbsent(node.parentId(), id -> new ArrayList<>()).add(node);
+            }
+        }
+        children.values().forEach(list -> list.sort(BY_NAME));
+        this.contentHash = Long.toHexString(hash);
+        this.lastModified = latest;
+
+        this.nodes = Map.copyOf(nodeMap);
+        this.idsBySlug = Map.copyOf(slugMap);
+        Map<UUID, List<CategoryNode>> frozenChildren = new HashMap<>();
+        children.forEach((parentId, list) -> frozenChildren.put(parentId, List.copyOf(list)));
+        this.childrenByParent = Map.copyOf(frozenChildren);
+
+        Map<UUID, CategoryResponse> built = new HashMap<>();
+        for (CategoryNode node : allNodes) {
+            build(node, built, new HashSet<>());
+        }
+        this.responses = Map.copyOf(built);
+        this.roots = allNodes.stream()
+                .filter(node -> node.parentId() == null && Boolean.TRUE.equals(node.isActive()))
+                .sorted(BY_NAME)
+                .map(node -> responses.get(node.id()))
+                .toList();
+    }
+
+    public List<CategoryResponse> roots() {
+        return roots;
+    }
+
+    public Optional<CategoryResponse> findById(UUID id) {
+        return Optional.ofNullable(responses.get(id));
+    }
+
+    public Optional<CategoryResponse> findBySlug(String slug) {
+        UUID id = idsBySlug.get(slug);
+        return id != null ? findById(id) : Optional.empty();
+    }
+
+    public Optional<CategoryNode> node(UUID id) {
+        return Optional.ofNullable(nodes.get(id));
+    }
+
+    public List<CategoryNode> children(UUID parentId) {
+        return childrenByParent.getOrDefault(parentId, List.of());
+    }
+
+    public ResourceVersion version() {
+        return ResourceVersion.of("categories-" + contentHash, lastModified);
+    }
+
+    public ResourceVersion version(UUID id) {
+        return ResourceVersion.of(id + "-" + contentHash, lastModified);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    private CategoryResponse build(CategoryNode node, Map<UUID, CategoryResponse> built, Set<UUID> path) {
+        CategoryResponse existing = built.get(node.id());
+        if (existing != null) {
+            return existing;
+        }
+        path.add(node.id());
+        List<CategoryResponse> children = new ArrayList<>();
+        for (CategoryNode child : children(node.id())) {
+            if (Boolean.TRUE.equals(child.isActive()) && !path.contains(child.id())) {
+                children.add(build(child, built, path));
+            }
+        }
+        path.remove(node.id());
+
+        CategoryResponse response = CategoryResponse.builder()
+                .id(node.id())
+                .name(node.name())
+                .slug(node.slug())
+                .imageUrl(node.imageUrl())
+                .isActive(node.isActive())
+                .children(children.isEmpty() ? null : List.copyOf(children))
+                .build();
+        built.put(node.id(), response);
+        return response;
+    }
+}
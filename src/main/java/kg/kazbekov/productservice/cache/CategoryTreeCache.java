@@ -0,0 +1,54 @@
+package kg.kazbekov.productservice.cache;
+
+import kg.kazbekov.productservice.event.CacheFlushEvent;
+import kg.kazbekov.productservice.event.CategoryChangedEvent;
+import kg.kazbekov.productservice.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoryTreeCache {
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile CategoryTree tree;
+
+    public CategoryTree get() {
+        CategoryTree current = tree;
+        if (current == null) {
+            synchronized (this) {
+                current = tree;
+                if (current == null) {
+                    current = load();
+                }
+            }
+        }
+        return current;
+    }
+
+    public synchronized CategoryTree reload() {
+        return load();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        reload();
+    }
+
+    @EventListener(CacheFlushEvent.class)
+    public void onFlush() {
+        reload();
+    }
+
+    private CategoryTree load() {
+        CategoryTree loaded = new CategoryTree(categoryRepository.findAllNodes());
+        tree = loaded;
+        log.debug("Category tree snapshot loaded: {} categories", loaded.size());
+        return loaded;
+    }
+}
@@ -0,0 +1,150 @@
+package kg.kazbekov.productservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import kg.kazbekov.productservice.dto.product.ProductResponse;
+import kg.kazbekov.productservice.event.CacheFlushEvent;
+import kg.kazbekov.productservice.event.CategoryChangedEvent;
+import kg.kazbekov.productservice.event.ProductChangedEvent;
+import kg.kazbekov.productservice.event.ProductsBulkChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+@Component
+public class ProductCache {
+
+    private static final int BASE_WEIGHT = 512;
+
+    private final Cache<UUID, ProductResponse> products;
+    private final Cache<String, UUID> idsBySlug;
+
+    public ProductCache(MeterRegistry meterRegistry,
+                        @Value("${product.cache.max-weight:64MB}") DataSize maxWeight,
+                        @Value("${product.cache.max-slugs:100000}") long maxSlugs,
+                        @Value("${product.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        // Инвалидация идёт событиями; TTL лишь ограничивает жизнь записи, если событие потерялось
+        this.products = Caffeine.newBuilder()
+                .maximumWeight(maxWeight.toBytes())
+                .weigher((UUID id, ProductResponse product) -> weigh(product))
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.idsBySlug = Caffeine.newBuilder()
+                .maximumSize(maxSlugs)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "products");
+    }
+
+    public ProductResponse getById(UUID id, Function<UUID, ProductResponse> loader) {
+        ProductResponse product = products.get(id, loader);
+        if (product != null) {
+            idsBySlug.put(product.getSlug(), id);
+        }
+        return product;
+    }
+
+    // Загрузка идёт через products.get(id, ...): evict после коммита ждёт завершения загрузки
+    // этого id и удаляет результат, так что устаревший товар не остаётся в кеше
+    public ProductResponse getBySlug(String slug, Function<String, UUID> idResolver,
+                                     Function<UUID, ProductResponse> loader) {
+        ProductResponse cached = getIfPresentBySlug(slug);
+        if (cached != null) {
+            return cached;
+        }
+        UUID id = idResolver.apply(slug);
+        if (id == null) {
+            return null;
+        }
+        ProductResponse product = getById(id, loader);
+        // slug мог смениться между поиском id и загрузкой
+        return product != null && slug.equals(product.getSlug()) ? product : null;
+    }
+
+    public ProductResponse getIfPresent(UUID id) {
+        return products.getIfPresent(id);
+    }
+
+    public ProductResponse getIfPresentBySlug(String slug) {
+        UUID id = idsBySlug.getIfPresent(slug);
+        if (id == null) {
+            return null;
+        }
+        ProductResponse cached = products.getIfPresent(id);
+        return cached != null && slug.equals(cached.getSlug()) ? cached : null;
+    }
+
+    public Map<UUID, ProductResponse> getAllPresent(Iterable<UUID> ids) {
+        return products.getAllPresent(ids);
+    }
+
+    public void put(ProductResponse product) {
+        products.put(product.getId(), product);
+        idsBySlug.put(product.getSlug(), product.getId());
+    }
+
+    public void evict(UUID id) {
+        ProductResponse removed = products.asMap().remove(id);
+        if (removed != null) {
+            idsBySlug.invalidate(removed.getSlug());
+        }
+    }
+
+    public void evictAll() {
+        products.invalidateAll();
+        idsBySlug.invalidateAll();
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.productId());
+        if (event.previousSlug() != null) {
+            idsBySlug.invalidate(event.previousSlug());
+        }
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        event.productIds().forEach(this::evict);
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        products.invalidateAll();
+    }
+
+    @EventListener(CacheFlushEvent.class)
+    public void onFlush() {
+        evictAll();
+    }
+
+    private static int weigh(ProductResponse product) {
+        long weight = BASE_WEIGHT
+                + 2L * (length(product.getName()) + length(product.getSlug()) + length(product.getSku())
+                + length(product.getDescription()) + length(product.getBrandName()));
+        if (product.getAttributes() != null) {
+            weight += 96L * product.getAttributes().size();
+        }
+        if (product.getImages() != null) {
+            weight += 160L * product.getImages().size();
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
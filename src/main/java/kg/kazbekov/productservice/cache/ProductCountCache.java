@@ -0,0 +1,33 @@
+package kg.kazbekov.productservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import kg.kazbekov.productservice.dto.product.ProductFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+@Component
+public class ProductCountCache {
+
+    private final Cache<ProductFilter, Long> counts;
+
+    public ProductCountCache(@Value("${product.count-cache.ttl:30s}") Duration ttl,
+                             @Value("${product.count-cache.max-size:10000}") long maxSize) {
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    // Оценка кешируется, только если точного значения ещё нет; EXPLAIN выполняется один раз на ключ
+    public Long get(ProductFilter filter, Function<ProductFilter, Long> loader) {
+        return counts.get(filter, loader);
+    }
+
+    public void put(ProductFilter filter, long count) {
+        counts.put(filter, count);
+    }
+}
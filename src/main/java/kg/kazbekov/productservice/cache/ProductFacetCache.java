@@ -0,0 +1,53 @@
+package kg.kazbekov.productservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import kg.kazbekov.productservice.dto.product.ProductFacets;
+import kg.kazbekov.productservice.dto.product.ProductFilter;
+import kg.kazbekov.productservice.event.CacheFlushEvent;
+import kg.kazbekov.productservice.event.ProductChangedEvent;
+import kg.kazbekov.productservice.event.ProductsBulkChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+@Component
+public class ProductFacetCache {
+
+    private final Cache<Key, ProductFacets> facets;
+
+    public ProductFacetCache(@Value("${product.facet-cache.ttl:5m}") Duration ttl,
+                             @Value("${product.facet-cache.max-size:5000}") long maxSize) {
+        this.facets = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public ProductFacets get(ProductFilter filter, List<String> attributeKeys, Supplier<ProductFacets> loader) {
+        return facets.get(new Key(filter, attributeKeys), key -> loader.get());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        facets.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        facets.invalidateAll();
+    }
+
+    @EventListener(CacheFlushEvent.class)
+    public void onFlush() {
+        facets.invalidateAll();
+    }
+
+    private record Key(ProductFilter filter, List<String> attributeKeys) {
+    }
+}
@@ -0,0 +1,101 @@
+package kg.kazbekov.productservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import kg.kazbekov.productservice.dto.ApiResponse;
+import kg.kazbekov.productservice.dto.ResourceVersion;
+import kg.kazbekov.productservice.dto.product.ProductResponse;
+import kg.kazbekov.productservice.event.CacheFlushEvent;
+import kg.kazbekov.productservice.event.CategoryChangedEvent;
+import kg.kazbekov.productservice.event.ProductChangedEvent;
+import kg.kazbekov.productservice.event.ProductsBulkChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+@Component
+public class ProductJsonCache {
+
+    private final Cache<UUID, SerializedProduct> entries;
+    private final JsonMapper jsonMapper;
+    private final int gzipMinSize;
+
+    public record SerializedProduct(String etag, long lastModified, byte[] json, byte[] gzip) {
+    }
+
+    public ProductJsonCache(JsonMapper jsonMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${product.json-cache.max-weight:32MB}") DataSize maxWeight,
+                            @Value("${product.json-cache.gzip-min-size:1KB}") DataSize gzipMinSize) {
+        this.jsonMapper = jsonMapper;
+        this.gzipMinSize = (int) gzipMinSize.toBytes();
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxWeight.toBytes())
+                .weigher((UUID id, SerializedProduct entry) ->
+                        64 + entry.json().length + (entry.gzip() != null ? entry.gzip().length : 0))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "product-json");
+    }
+
+    public SerializedProduct getIfPresent(UUID id) {
+        return entries.getIfPresent(id);
+    }
+
+    public SerializedProduct get(UUID id, Function<UUID, SerializedProduct> loader) {
+        return entries.get(id, loader);
+    }
+
+    public SerializedProduct serialize(ProductResponse product, ResourceVersion version, boolean compress) {
+        byte[] json = jsonMapper.writeValueAsBytes(ApiResponse.success(product));
+        return new SerializedProduct(version.etag(), version.lastModified(), json,
+                compress && json.length >= gzipMinSize ? gzip(json) : null);
+    }
+
+    // Выполняется после ProductCache, чтобы повторная загрузка не взяла устаревший ProductResponse
+    @Order(1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        entries.invalidate(event.productId());
+    }
+
+    @Order(1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        entries.invalidateAll(event.productIds());
+    }
+
+    @Order(1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        entries.invalidateAll();
+    }
+
+    @EventListener(CacheFlushEvent.class)
+    public void onFlush() {
+        entries.invalidateAll();
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 3);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
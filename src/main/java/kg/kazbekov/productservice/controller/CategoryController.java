@@ -5,6 +5,7 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import kg.kazbekov.productservice.dto.ApiResponse;
+import kg.kazbekov.productservice.dto.ResourceVersion;
 import kg.kazbekov.productservice.dto.category.CategoryCreateRequest;
 import kg.kazbekov.productservice.dto.category.CategoryResponse;
 import kg.kazbekov.productservice.dto.category.CategoryUpdateRequest;
@@ -14,6 +15,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -29,8 +31,12 @@ public class CategoryController {
 
     @GetMapping
     @Operation(summary = "Получить дерево категорий")
-    public ResponseEntity<ApiResponse<List<CategoryResponse>>> getCategoryTree() {
+    public ResponseEntity<ApiResponse<List<CategoryResponse>>> getCategoryTree(WebRequest webRequest) {
         log.info("Getting category tree");
+        ResourceVersion version = categoryService.getCategoryTreeVersion();
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
         List<CategoryResponse> categories = categoryService.getCategoryTree();
         return ResponseEntity.ok(ApiResponse.success(categories));
     }
@@ -38,7 +44,12 @@ public class CategoryController {
     @GetMapping("/{id}")
     @Operation(summary = "Получить категорию по ID")
     public ResponseEntity<ApiResponse<CategoryResponse>> getCategoryById(
-            @Parameter(description = "UUID категории") @PathVariable UUID id) {
+            @Parameter(description = "UUID категории") @PathVariable UUID id,
+            WebRequest webRequest) {
+        ResourceVersion version = categoryService.getCategoryVersion(id);
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
         CategoryResponse category = categoryService.getCategoryById(id);
         return ResponseEntity.ok(ApiResponse.success(category));
     }
@@ -46,7 +57,12 @@ public class CategoryController {
     @GetMapping("/slug/{slug}")
     @Operation(summary = "Получить категорию по slug")
     public ResponseEntity<ApiResponse<CategoryResponse>> getCategoryBySlug(
-            @Parameter(description = "Slug категории") @PathVariable String slug) {
+            @Parameter(description = "Slug категории") @PathVariable String slug,
+            WebRequest webRequest) {
+        ResourceVersion version = categoryService.getCategoryVersionBySlug(slug);
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
         CategoryResponse category = categoryService.getCategoryBySlug(slug);
         return ResponseEntity.ok(ApiResponse.success(category));
     }
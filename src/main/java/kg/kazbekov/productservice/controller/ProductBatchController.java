@@ -0,0 +1,100 @@
+package kg.kazbekov.productservice.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import kg.kazbekov.productservice.dto.ApiResponse;
+import kg.kazbekov.productservice.dto.product.ProductBatchGetRequest;
+import kg.kazbekov.productservice.dto.product.ProductBatchGetResponse;
+import kg.kazbekov.productservice.dto.product.ProductBulkPriceUpdateRequest;
+import kg.kazbekov.productservice.dto.product.ProductBulkSelector;
+import kg.kazbekov.productservice.dto.product.ProductBulkStatusUpdateRequest;
+import kg.kazbekov.productservice.dto.product.ProductBulkUpdateResponse;
+import kg.kazbekov.productservice.dto.product.ProductImportSummary;
+import kg.kazbekov.productservice.service.ProductImportService;
+import kg.kazbekov.productservice.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Products", description = "API для управления товарами")
+public class ProductBatchController {
+
+    private final ProductService productService;
+    private final ProductImportService productImportService;
+
+    @PostMapping("/api/v1/products:batchGet")
+    @Operation(summary = "Получить несколько товаров по ID или slug",
+            description = "Не найденные ID и slug возвращаются в missing_ids / missing_slugs")
+    public ResponseEntity<ApiResponse<ProductBatchGetResponse>> batchGetProducts(
+            @Valid @RequestBody ProductBatchGetRequest request
+    ) {
+        log.info("Batch getting products: ids={}, slugs={}",
+                request.getIds() == null ? 0 : request.getIds().size(),
+                request.getSlugs() == null ? 0 : request.getSlugs().size());
+        ProductBatchGetResponse response = productService.getProductsBatch(request.getIds(), request.getSlugs());
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @PostMapping("/api/v1/products:bulkUpdateStatus")
+    @Operation(summary = "Изменить статус группы товаров",
+            description = "Товары выбираются по списку ID и/или фильтру (категория, бренд, статус)")
+    public ResponseEntity<ApiResponse<ProductBulkUpdateResponse>> bulkUpdateStatus(
+            @Valid @RequestBody ProductBulkStatusUpdateRequest request
+    ) {
+        log.info("Bulk updating product status: status={}, selector={}",
+                request.getStatus(), describe(request.getSelector()));
+        ProductBulkUpdateResponse response = productService.bulkUpdateStatus(request);
+        log.info("Bulk status update changed {} products", response.getUpdated());
+        return ResponseEntity.ok(ApiResponse.success(response, "Products updated successfully"));
+    }
+
+    @PostMapping("/api/v1/products:bulkUpdatePrice")
+    @Operation(summary = "Изменить цены группы товаров",
+            description = "Новая цена или множитель текущей, compare_at_price — значение или сброс")
+    public ResponseEntity<ApiResponse<ProductBulkUpdateResponse>> bulkUpdatePrices(
+            @Valid @RequestBody ProductBulkPriceUpdateRequest request
+    ) {
+        log.info("Bulk updating product prices: price={}, multiplier={}, compareAtPrice={}, selector={}",
+                request.getPrice(), request.getPriceMultiplier(), request.getCompareAtPrice(),
+                describe(request.getSelector()));
+        ProductBulkUpdateResponse response = productService.bulkUpdatePrices(request);
+        log.info("Bulk price update changed {} products", response.getUpdated());
+        return ResponseEntity.ok(ApiResponse.success(response, "Products updated successfully"));
+    }
+
+    @PostMapping(value = "/api/v1/products:import", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Массовый импорт товаров (NDJSON)",
+            description = "Одна строка — ProductCreateRequest; в ответ по строке результата (CREATED, DUPLICATE, INVALID, "
+                    + "FAILED — чанк отклонён базой) на каждую входную строку, результаты отдаются по мере обработки чанков")
+    public void importProducts(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.info("Importing products");
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        ProductImportSummary summary = productImportService.importProducts(request.getInputStream(),
+                response.getOutputStream());
+        log.info("Product import finished: total={}, created={}, duplicates={}, invalid={}, failed={}",
+                summary.getTotal(), summary.getCreated(), summary.getDuplicates(), summary.getInvalid(),
+                summary.getFailed());
+    }
+
+    private static String describe(ProductBulkSelector selector) {
+        return "ids=" + (selector.getIds() == null ? 0 : selector.getIds().size())
+                + ", categoryId=" + selector.getCategoryId()
+                + ", brandName=" + selector.getBrandName()
+                + ", status=" + selector.getStatus();
+    }
+}
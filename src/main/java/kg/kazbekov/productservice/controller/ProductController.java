@@ -4,20 +4,50 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import kg.kazbekov.productservice.cache.ProductJsonCache;
 import kg.kazbekov.productservice.dto.ApiResponse;
 import kg.kazbekov.productservice.dto.PagedResponse;
+import kg.kazbekov.productservice.dto.ResourceVersion;
+import kg.kazbekov.productservice.dto.product.ProductChangesResponse;
 import kg.kazbekov.productservice.dto.product.ProductCreateRequest;
+import kg.kazbekov.productservice.dto.product.ProductFacets;
+import kg.kazbekov.productservice.dto.product.ProductField;
+import kg.kazbekov.productservice.dto.product.ProductFilter;
+import kg.kazbekov.productservice.dto.product.ProductPageResponse;
 import kg.kazbekov.productservice.dto.product.ProductResponse;
+import kg.kazbekov.productservice.dto.product.ProductSearchHit;
 import kg.kazbekov.productservice.dto.product.ProductStatusUpdateRequest;
 import kg.kazbekov.productservice.dto.product.ProductUpdateRequest;
+import kg.kazbekov.productservice.dto.product.ProductVersion;
+import kg.kazbekov.productservice.dto.product.TotalCountMode;
+import kg.kazbekov.productservice.dto.review.RatingAggregate;
+import kg.kazbekov.productservice.event.ProductChangeType;
+import kg.kazbekov.productservice.event.ProductEventStream;
 import kg.kazbekov.productservice.model.ProductStatus;
+import kg.kazbekov.productservice.search.ProductSearchService;
+import kg.kazbekov.productservice.service.ProductChangeFeedService;
+import kg.kazbekov.productservice.service.ProductExportService;
 import kg.kazbekov.productservice.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 
 @Slf4j
@@ -27,41 +57,176 @@ import java.util.UUID;
 @Tag(name = "Products", description = "API для управления товарами")
 public class ProductController {
 
+    private static final String ATTRIBUTE_PARAM_PREFIX = "attr.";
+    private static final int MAX_ATTRIBUTE_FILTERS = 10;
+    private static final String INCLUDE_RATING = "rating";
+
     private final ProductService productService;
+    private final ProductSearchService productSearchService;
+    private final ProductExportService productExportService;
+    private final ProductChangeFeedService productChangeFeedService;
+    private final ProductEventStream productEventStream;
 
     @GetMapping
     @Operation(summary = "Получить список товаров")
-    public ResponseEntity<PagedResponse<ProductResponse>> getProducts(
+    public ResponseEntity<ProductPageResponse> getProducts(
             @Parameter(description = "Номер страницы") @RequestParam(defaultValue = "1") int page,
             @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "20") int limit,
+            @Parameter(description = "Курсор следующей страницы (пустое значение — первая страница)")
+            @RequestParam(required = false) String cursor,
             @Parameter(description = "ID категории") @RequestParam(name = "category_id", required = false) UUID categoryId,
             @Parameter(description = "Статус") @RequestParam(required = false) ProductStatus status,
-            @Parameter(description = "Поиск по названию") @RequestParam(required = false) String search,
-            @Parameter(description = "Сортировка (price:asc, name:desc)") @RequestParam(required = false) String sort
+            @Parameter(description = "Бренд") @RequestParam(name = "brand_name", required = false) String brandName,
+            @Parameter(description = "Поиск по названию, бренду и описанию") @RequestParam(required = false) String search,
+            @Parameter(description = "Минимальная цена") @RequestParam(name = "min_price", required = false) BigDecimal minPrice,
+            @Parameter(description = "Максимальная цена") @RequestParam(name = "max_price", required = false) BigDecimal maxPrice,
+            @Parameter(description = "Только товары со скидкой (compare_at_price > price)")
+            @RequestParam(name = "on_sale", defaultValue = "false") boolean onSale,
+            @Parameter(description = "Сортировка: price, name, created_at, rating с :asc или :desc (price:asc, name:desc)") @RequestParam(required = false) String sort,
+            @Parameter(description = "Общее количество: false, exact, estimate "
+                    + "(по умолчанию estimate для страниц и false для курсора)")
+            @RequestParam(name = "include_total", required = false) String includeTotal,
+            @Parameter(description = "Вернуть фасеты (бренды, цены, статусы, атрибуты)")
+            @RequestParam(defaultValue = "false") boolean facets,
+            @Parameter(description = "Ключи атрибутов для фасетов (color,size)")
+            @RequestParam(name = "facet_attributes", required = false) List<String> facetAttributes,
+            @Parameter(description = "Дополнительные данные: rating")
+            @RequestParam(required = false) List<String> include,
+            @Parameter(description = "Набор полей (id,name,price,category.name); по умолчанию — карточка без description, attributes и images")
+            @RequestParam(required = false) List<String> fields,
+            @Parameter(description = "Фильтры по атрибутам: attr.<ключ>=<значение>", hidden = true)
+            @RequestParam Map<String, String> params
     ) {
-        log.info("Getting products: page={}, limit={}, categoryId={}, status={}, search={}",
-                page, limit, categoryId, status, search);
-        PagedResponse<ProductResponse> response = productService.getProducts(page, limit, categoryId, status, search, sort);
-        log.debug("Found {} products", response.getData().size());
-        return ResponseEntity.ok(response);
+        log.info("Getting products: page={}, limit={}, cursor={}, categoryId={}, status={}, brandName={}, search={}, "
+                        + "sort={}, minPrice={}, maxPrice={}, onSale={}",
+                page, limit, cursor, categoryId, status, brandName, search, sort, minPrice, maxPrice, onSale);
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("min_price must not exceed max_price");
+        }
+        ProductFilter filter = ProductFilter.builder()
+                .categoryId(categoryId)
+                .status(status)
+                .brandName(brandName)
+                .search(search)
+                .attributes(attributeFilters(params))
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .onSale(onSale)
+                .build();
+        // Точный COUNT(*) только по явному include_total=exact
+        TotalCountMode totalMode = TotalCountMode.from(includeTotal,
+                cursor != null ? TotalCountMode.NONE : TotalCountMode.ESTIMATE);
+        Set<ProductField> selected = ProductField.parse(fields);
+        Set<ProductField> listFields = EnumSet.copyOf(selected != null ? selected : ProductField.CARD);
+        if (includesRating(include)) {
+            listFields.add(ProductField.RATING);
+        }
+        PagedResponse<ProductResponse> products =
+                productService.getProducts(filter, page, limit, cursor, sort, totalMode, listFields);
+        ProductFacets productFacets = facets ? productService.getFacets(filter, facetAttributes) : null;
+        log.debug("Found {} products", products.getData().size());
+        return ResponseEntity.ok(ProductPageResponse.of(products, productFacets));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Быстрый поиск товаров по названию и бренду")
+    public ResponseEntity<PagedResponse<ProductSearchHit>> searchProducts(
+            @Parameter(description = "Поисковый запрос (все слова обязательны)") @RequestParam String q,
+            @Parameter(description = "Статус") @RequestParam(required = false) ProductStatus status,
+            @Parameter(description = "ID категории") @RequestParam(name = "category_id", required = false) UUID categoryId,
+            @Parameter(description = "Номер страницы") @RequestParam(defaultValue = "1") int page,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "20") int limit
+    ) {
+        log.info("Searching products: q={}, status={}, categoryId={}", q, status, categoryId);
+        return ResponseEntity.ok(productSearchService.search(q, status, categoryId, page, limit));
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Лента изменений товаров",
+            description = "Созданные, изменённые и удалённые товары после курсора в порядке (changed_at, id)")
+    public ResponseEntity<ApiResponse<ProductChangesResponse>> getProductChanges(
+            @Parameter(description = "Курсор из next_cursor предыдущего ответа (пусто — с начала)")
+            @RequestParam(required = false) String since,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "100") int limit,
+            @Parameter(description = "Набор полей товара (id,name,price,category.name)")
+            @RequestParam(required = false) List<String> fields
+    ) {
+        log.info("Getting product changes: since={}, limit={}", since, limit);
+        Set<ProductField> selected = ProductField.parse(fields);
+        ProductChangesResponse changes = productChangeFeedService.getChanges(since, limit,
+                selected != null ? selected : ProductField.DETAIL);
+        return ResponseEntity.ok(ApiResponse.success(changes));
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Поток изменений товаров (SSE)",
+            description = "События CREATED, UPDATED, STATUS_CHANGED, PRICE_CHANGED, DELETED после коммита; "
+                    + "массовое изменение приходит одним событием с ids и count вместо id; "
+                    + "resync — события потеряны, нужна досинхронизация через /changes")
+    public SseEmitter streamProductEvents(
+            @Parameter(description = "Типы событий (по умолчанию все); UPDATED включает PRICE_CHANGED")
+            @RequestParam(required = false) Set<ProductChangeType> types,
+            @Parameter(hidden = true) @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        log.info("Subscribing to product events: types={}, lastEventId={}", types, lastEventId);
+        return productEventStream.subscribe(lastEventId, types == null || types.isEmpty() ? null : types);
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Выгрузить каталог потоком (NDJSON или CSV)",
+            description = "Строки читаются серверным курсором в одном снимке БД и пишутся по мере чтения")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @Parameter(description = "Формат: ndjson, csv") @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Статус") @RequestParam(required = false) ProductStatus status
+    ) {
+        log.info("Exporting products: format={}, status={}", format, status);
+        ProductExportService.Format exportFormat = ProductExportService.Format.from(format);
+        MediaType contentType = exportFormat == ProductExportService.Format.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON;
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("products." + format.toLowerCase(Locale.ROOT))
+                        .build()
+                        .toString())
+                .body(output -> productExportService.export(exportFormat, status, output));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Получить товар по ID")
-    public ResponseEntity<ApiResponse<ProductResponse>> getProductById(
-            @Parameter(description = "UUID товара") @PathVariable UUID id) {
+    public ResponseEntity<byte[]> getProductById(
+            @Parameter(description = "UUID товара") @PathVariable UUID id,
+            @Parameter(description = "Дополнительные данные: rating") @RequestParam(required = false) List<String> include,
+            @Parameter(description = "Набор полей (id,name,price,category.name)") @RequestParam(required = false) List<String> fields,
+            @Parameter(hidden = true) @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding,
+            WebRequest webRequest) {
         log.info("Getting product by id: {}", id);
-        ProductResponse product = productService.getProductById(id);
-        return ResponseEntity.ok(ApiResponse.success(product));
+        Set<ProductField> selected = detailFields(fields, include);
+        if (selected == null) {
+            ProductJsonCache.SerializedProduct cached = productService.getCachedSerializedProduct(id);
+            if (cached != null) {
+                return webRequest.checkNotModified(cached.etag(), cached.lastModified())
+                        ? null
+                        : serializedProduct(cached, acceptEncoding);
+            }
+        }
+        return productResponse(productService.getProductVersion(id), selected, acceptEncoding, webRequest);
     }
 
     @GetMapping("/slug/{slug}")
     @Operation(summary = "Получить товар по slug")
-    public ResponseEntity<ApiResponse<ProductResponse>> getProductBySlug(
-            @Parameter(description = "Slug товара") @PathVariable String slug) {
+    public ResponseEntity<byte[]> getProductBySlug(
+            @Parameter(description = "Slug товара") @PathVariable String slug,
+            @Parameter(description = "Дополнительные данные: rating") @RequestParam(required = false) List<String> include,
+            @Parameter(description = "Набор полей (id,name,price,category.name)") @RequestParam(required = false) List<String> fields,
+            @Parameter(hidden = true) @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding,
+            WebRequest webRequest) {
         log.info("Getting product by slug: {}", slug);
-        ProductResponse product = productService.getProductBySlug(slug);
-        return ResponseEntity.ok(ApiResponse.success(product));
+        return productResponse(productService.getProductVersionBySlug(slug), detailFields(fields, include),
+                acceptEncoding, webRequest);
     }
 
     @PostMapping
@@ -103,4 +268,113 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.ok(ApiResponse.success(null, "Product deleted successfully"));
     }
+
+    private ResponseEntity<byte[]> productResponse(ProductVersion productVersion, Set<ProductField> fields,
+                                                   String acceptEncoding, WebRequest webRequest) {
+        if (fields == null) {
+            ResourceVersion version = productVersion.toResourceVersion();
+            if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+                return null;
+            }
+            return serializedProduct(productService.getSerializedProduct(productVersion.id()), acceptEncoding);
+        }
+
+        RatingAggregate rating = fields.contains(ProductField.RATING)
+                ? productService.getRating(productVersion.id())
+                : null;
+        ResourceVersion version = productVersion.toResourceVersion(fields, rating);
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+        return serializedProduct(productService.getSerializedProduct(productVersion.id(), fields, rating, version),
+                acceptEncoding);
+    }
+
+    // null — полное представление без рейтинга, которое отдаётся из кеша сериализованного JSON
+    private static Set<ProductField> detailFields(List<String> fields, List<String> include) {
+        Set<ProductField> selected = ProductField.parse(fields);
+        boolean rating = includesRating(include);
+        if (selected == null && !rating) {
+            return null;
+        }
+        Set<ProductField> detail = EnumSet.copyOf(selected != null ? selected : ProductField.DETAIL);
+        if (rating) {
+            detail.add(ProductField.RATING);
+        }
+        return detail;
+    }
+
+    private static ResponseEntity<byte[]> serializedProduct(ProductJsonCache.SerializedProduct product,
+                                                            String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(product.etag())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (product.gzip() != null && acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(product.gzip());
+        }
+        return response.body(product.json());
+    }
+
+    // RFC 9110: q=0 запрещает кодировку, явное "gzip" важнее "*"
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            boolean gzip = name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip");
+            if (!gzip && !name.equals("*")) {
+                continue;
+            }
+            boolean accepted = qualityOf(parts) > 0;
+            if (gzip) {
+                return accepted;
+            }
+            wildcard = accepted;
+        }
+        return wildcard;
+    }
+
+    private static double qualityOf(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q')
+                    && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static boolean includesRating(List<String> include) {
+        if (include == null) {
+            return false;
+        }
+        for (String value : include) {
+            if (!INCLUDE_RATING.equals(value.trim())) {
+                throw new IllegalArgumentException("Unsupported include: " + value + ". Allowed: " + INCLUDE_RATING);
+            }
+        }
+        return !include.isEmpty();
+    }
+
+    private static Map<String, String> attributeFilters(Map<String, String> params) {
+        Map<String, String> attributes = new TreeMap<>();
+        params.forEach((name, value) -> {
+            if (name.startsWith(ATTRIBUTE_PARAM_PREFIX) && name.length() > ATTRIBUTE_PARAM_PREFIX.length()) {
+                attributes.put(name.substring(ATTRIBUTE_PARAM_PREFIX.length()), value);
+            }
+        });
+        if (attributes.size() > MAX_ATTRIBUTE_FILTERS) {
+            throw new IllegalArgumentException("At most " + MAX_ATTRIBUTE_FILTERS + " attribute filters are allowed");
+        }
+        return attributes;
+    }
 }
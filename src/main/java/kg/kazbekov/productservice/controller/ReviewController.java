@@ -6,6 +6,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import kg.kazbekov.productservice.dto.ApiResponse;
 import kg.kazbekov.productservice.dto.PagedResponse;
+import kg.kazbekov.productservice.dto.review.ProductRatingBatchRequest;
 import kg.kazbekov.productservice.dto.review.ProductRatingResponse;
 import kg.kazbekov.productservice.dto.review.ReviewCreateRequest;
 import kg.kazbekov.productservice.dto.review.ReviewResponse;
@@ -16,6 +17,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
 import java.util.UUID;
 
 @Slf4j
@@ -60,6 +62,16 @@ public class ReviewController {
         return ResponseEntity.ok(ApiResponse.success(null, "Review deleted successfully"));
     }
 
+    @PostMapping("/api/v1/products/ratings:batch")
+    @Operation(summary = "Получить рейтинги нескольких товаров")
+    public ResponseEntity<ApiResponse<Map<UUID, ProductRatingResponse>>> getProductRatings(
+            @Valid @RequestBody ProductRatingBatchRequest request
+    ) {
+        log.info("Getting ratings for {} products", request.getProductIds().size());
+        Map<UUID, ProductRatingResponse> ratings = reviewService.getProductRatings(request.getProductIds());
+        return ResponseEntity.ok(ApiResponse.success(ratings));
+    }
+
     @GetMapping("/api/v1/products/{productId}/rating")
     @Operation(summary = "Получить средний рейтинг товара")
     public ResponseEntity<ApiResponse<ProductRatingResponse>> getProductRating(
@@ -10,10 +10,12 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class PageMeta {
-    private int page;
+    private Integer page;
     private int limit;
-    private long totalCount;
-    private int totalPages;
+    private Long totalCount;
+    private Integer totalPages;
+    private Boolean totalExact;
+    private String nextCursor;
 
     public static PageMeta of(int page, int limit, long totalCount) {
         return PageMeta.builder()
@@ -23,4 +25,23 @@ public class PageMeta {
                 .totalPages((int) Math.ceil((double) totalCount / limit))
                 .build();
     }
+
+    public static PageMeta of(int page, int limit, Long totalCount, boolean totalExact) {
+        if (totalCount == null) {
+            return PageMeta.builder()
+                    .page(page)
+                    .limit(limit)
+                    .build();
+        }
+        PageMeta meta = of(page, limit, totalCount);
+        meta.setTotalExact(totalExact);
+        return meta;
+    }
+
+    public static PageMeta ofCursor(int limit, String nextCursor) {
+        return PageMeta.builder()
+                .limit(limit)
+                .nextCursor(nextCursor)
+                .build();
+    }
 }
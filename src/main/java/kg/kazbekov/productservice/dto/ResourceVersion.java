@@ -0,0 +1,24 @@
+package kg.kazbekov.productservice.dto;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+public record ResourceVersion(String etag, long lastModified) {
+
+    public static ResourceVersion of(String tag, OffsetDateTime... timestamps) {
+        StringBuilder etag = new StringBuilder("W/\"").append(tag);
+        long lastModified = -1;
+        for (OffsetDateTime timestamp : timestamps) {
+            etag.append('-');
+            if (timestamp == null) {
+                etag.append('0');
+                continue;
+            }
+            Instant instant = timestamp.toInstant();
+            // Postgres хранит микросекунды: отбрасываем наносекунды, чтобы ETag после записи совпадал с прочитанным
+            etag.append(Long.toHexString(instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000));
+            lastModified = Math.max(lastModified, instant.toEpochMilli());
+        }
+        return new ResourceVersion(etag.append('"').toString(), lastModified);
+    }
+}
@@ -0,0 +1,22 @@
+package kg.kazbekov.productservice.dto.product;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchGetRequest {
+
+    private List<@NotNull UUID> ids;
+
+    private List<@NotBlank String> slugs;
+}
@@ -0,0 +1,21 @@
+package kg.kazbekov.productservice.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchGetResponse {
+
+    // Сначала товары по ids, затем по slugs — в порядке запроса
+    private List<ProductResponse> products;
+    private List<UUID> missingIds;
+    private List<String> missingSlugs;
+}
@@ -0,0 +1,41 @@
+package kg.kazbekov.productservice.dto.product;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkPriceUpdateRequest {
+
+    @Valid
+    @NotNull(message = "Selector is required")
+    private ProductBulkSelector selector;
+
+    // Новая цена либо множитель текущей (0.8 — скидка 20%)
+    // Колонки цены numeric(12,2)
+    @Positive(message = "Price must be positive")
+    @Digits(integer = 10, fraction = 2, message = "Price must have at most 10 integer and 2 fraction digits")
+    private BigDecimal price;
+
+    @Positive(message = "Price multiplier must be positive")
+    @DecimalMax(value = "100", message = "Price multiplier must not exceed 100")
+    private BigDecimal priceMultiplier;
+
+    @Positive(message = "Compare-at price must be positive")
+    @Digits(integer = 10, fraction = 2,
+            message = "Compare-at price must have at most 10 integer and 2 fraction digits")
+    private BigDecimal compareAtPrice;
+
+    private boolean clearCompareAtPrice;
+}
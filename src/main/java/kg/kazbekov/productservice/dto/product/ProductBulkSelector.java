@@ -0,0 +1,41 @@
+package kg.kazbekov.productservice.dto.product;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import kg.kazbekov.productservice.model.ProductStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+// Какие товары менять: список id и/или фильтр; условия объединяются через AND
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkSelector {
+
+    @Size(max = 50000, message = "At most 50000 product IDs are allowed")
+    private List<@NotNull UUID> ids;
+
+    private UUID categoryId;
+
+    private String brandName;
+
+    private ProductStatus status;
+
+    public boolean isEmpty() {
+        return (ids == null || ids.isEmpty()) && categoryId == null && brandName == null && status == null;
+    }
+
+    public ProductFilter toFilter() {
+        return ProductFilter.builder()
+                .categoryId(categoryId)
+                .brandName(brandName)
+                .status(status)
+                .build();
+    }
+}
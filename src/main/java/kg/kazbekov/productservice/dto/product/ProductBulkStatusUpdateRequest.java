@@ -0,0 +1,23 @@
+package kg.kazbekov.productservice.dto.product;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import kg.kazbekov.productservice.model.ProductStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkStatusUpdateRequest {
+
+    @Valid
+    @NotNull(message = "Selector is required")
+    private ProductBulkSelector selector;
+
+    @NotNull(message = "Status is required")
+    private ProductStatus status;
+}
@@ -0,0 +1,40 @@
+package kg.kazbekov.productservice.dto.product;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+// Позиция в ленте изменений: (changed_at, id) последней отданной записи
+public record ProductChangeCursor(OffsetDateTime changedAt, UUID id) {
+
+    public static final ProductChangeCursor START =
+            new ProductChangeCursor(OffsetDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC), new UUID(0, 0));
+
+    private static final String SEPARATOR = "|";
+
+    public static ProductChangeCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new ProductChangeCursor(OffsetDateTime.ofInstant(Instant.parse(parts[0]), ZoneOffset.UTC),
+                    UUID.fromString(parts[1]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = changedAt.toInstant() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,7 @@
+package kg.kazbekov.productservice.dto.product;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public record ProductChangeEntry(UUID id, OffsetDateTime changedAt, boolean deleted) {
+}
@@ -0,0 +1,40 @@
+package kg.kazbekov.productservice.dto.product;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangesResponse {
+
+    private List<Change> changes;
+    // Передаётся в since следующего запроса, в том числе когда изменений нет
+    private String nextCursor;
+    private boolean hasMore;
+
+    public enum ChangeType {
+        UPSERTED,
+        DELETED
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Change {
+        private UUID id;
+        private ChangeType type;
+        private OffsetDateTime changedAt;
+        private ProductResponse product;
+    }
+}
@@ -0,0 +1,47 @@
+package kg.kazbekov.productservice.dto.product;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.Base64;
+import java.util.UUID;
+
+public record ProductCursor(ProductSort sort, String value, UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static ProductCursor of(ProductSort sort, ProductListItem product) {
+        return new ProductCursor(sort, sort.field().cursorValue(product), product.id());
+    }
+
+    public static ProductCursor decode(String cursor, ProductSort sort) {
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            parts = raw.split("\\|", 3);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!parts[0].equals(sort.key())) {
+            throw new IllegalArgumentException("Cursor was issued for sort '" + parts[0] + "'");
+        }
+        try {
+            ProductCursor decoded = new ProductCursor(sort, parts[2], UUID.fromString(parts[1]));
+            decoded.typedValue();
+            return decoded;
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public Object typedValue() {
+        return sort.field().parseCursorValue(value);
+    }
+
+    public String encode() {
+        String raw = sort.key() + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,33 @@
+package kg.kazbekov.productservice.dto.product;
+
+import kg.kazbekov.productservice.model.ProductStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacets {
+
+    private Map<String, Long> brands;
+    private List<PriceRange> priceRanges;
+    private Map<ProductStatus, Long> statuses;
+    private Map<String, Map<String, Long>> attributes;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceRange {
+        private BigDecimal from;
+        private BigDecimal to;
+        private long count;
+    }
+}
@@ -0,0 +1,97 @@
+package kg.kazbekov.productservice.dto.product;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public enum ProductField {
+    ID("id", "p.id"),
+    SKU("sku", "p.sku"),
+    NAME("name", "p.name"),
+    SLUG("slug", "p.slug"),
+    DESCRIPTION("description", "p.description"),
+    BRAND_NAME("brand_name", "p.brand_name"),
+    PRICE("price", "p.price"),
+    COMPARE_AT_PRICE("compare_at_price", "p.compare_at_price"),
+    STATUS("status", "p.status"),
+    CATEGORY_ID("category.id", "c.id AS category_id"),
+    CATEGORY_NAME("category.name", "c.name AS category_name"),
+    CATEGORY_SLUG("category.slug", "c.slug AS category_slug"),
+    ATTRIBUTES("attributes", "p.attributes"),
+    IMAGES("images", "p.images"),
+    RATING("rating", "p.rating_sum", "p.rating_count"),
+    CREATED_AT("created_at", "p.created_at"),
+    UPDATED_AT("updated_at", "p.updated_at");
+
+    // Карточка списка: без тяжёлых description / attributes / images
+    public static final Set<ProductField> CARD = Collections.unmodifiableSet(
+            EnumSet.complementOf(EnumSet.of(DESCRIPTION, ATTRIBUTES, IMAGES, RATING)));
+    public static final Set<ProductField> DETAIL = Collections.unmodifiableSet(
+            EnumSet.complementOf(EnumSet.of(RATING)));
+
+    private static final Set<ProductField> CATEGORY = EnumSet.of(CATEGORY_ID, CATEGORY_NAME, CATEGORY_SLUG);
+
+    private final String key;
+    private final List<String> columns;
+
+    ProductField(String key, String... columns) {
+        this.key = key;
+        this.columns = List.of(columns);
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public List<String> columns() {
+        return columns;
+    }
+
+    public boolean isCategory() {
+        return CATEGORY.contains(this);
+    }
+
+    // null — параметр fields не передан
+    public static EnumSet<ProductField> parse(List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return null;
+        }
+        EnumSet<ProductField> selected = EnumSet.noneOf(ProductField.class);
+        for (String field : fields) {
+            String key = field.trim().toLowerCase(Locale.ROOT);
+            if (key.isEmpty()) {
+                continue;
+            }
+            if (key.equals("category")) {
+                selected.addAll(CATEGORY);
+            } else {
+                selected.add(fromKey(key));
+            }
+        }
+        return selected.isEmpty() ? null : selected;
+    }
+
+    public static boolean anyCategory(Set<ProductField> fields) {
+        return fields.stream().anyMatch(ProductField::isCategory);
+    }
+
+    public static String key(Set<ProductField> fields) {
+        long mask = 0;
+        for (ProductField field : fields) {
+            mask |= 1L << field.ordinal();
+        }
+        return Long.toHexString(mask);
+    }
+
+    private static ProductField fromKey(String key) {
+        return Arrays.stream(values())
+                .filter(field -> field.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported field: " + key + ". Allowed: category, "
+                        + Arrays.stream(values()).map(ProductField::key).collect(Collectors.joining(", "))));
+    }
+}
@@ -0,0 +1,40 @@
+package kg.kazbekov.productservice.dto.product;
+
+import kg.kazbekov.productservice.model.ProductStatus;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+@Value
+@Builder(toBuilder = true)
+public class ProductFilter {
+
+    UUID categoryId;
+    ProductStatus status;
+    String brandName;
+    String search;
+    Map<String, String> attributes;
+    BigDecimal minPrice;
+    BigDecimal maxPrice;
+    boolean onSale;
+
+    public boolean hasSearch() {
+        return search != null && !search.isBlank();
+    }
+
+    public boolean hasAttributes() {
+        return attributes != null && !attributes.isEmpty();
+    }
+
+    public ProductFilter normalized() {
+        return toBuilder()
+                .search(hasSearch() ? search.trim().toLowerCase(Locale.ROOT) : null)
+                .attributes(hasAttributes() ? new TreeMap<>(attributes) : null)
+                .build();
+    }
+}
@@ -0,0 +1,32 @@
+package kg.kazbekov.productservice.dto.product;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductImportResult {
+
+    private int line;
+    private Status status;
+    private UUID id;
+    private String sku;
+    private String slug;
+    private String error;
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        // Чанк отклонён базой (ограничение, переполнение): ни одна его строка не сохранена
+        FAILED
+    }
+}
@@ -0,0 +1,29 @@
+package kg.kazbekov.productservice.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportSummary {
+
+    private long total;
+    private long created;
+    private long duplicates;
+    private long invalid;
+    private long failed;
+
+    public void add(ProductImportResult result) {
+        total++;
+        switch (result.getStatus()) {
+            case CREATED -> created++;
+            case DUPLICATE -> duplicates++;
+            case INVALID -> invalid++;
+            case FAILED -> failed++;
+        }
+    }
+}
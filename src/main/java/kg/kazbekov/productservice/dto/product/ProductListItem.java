@@ -0,0 +1,33 @@
+package kg.kazbekov.productservice.dto.product;
+
+import kg.kazbekov.productservice.model.ProductStatus;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Плоская строка товара: заполнены только запрошенные колонки (fields), категория берётся JOIN-ом
+public record ProductListItem(
+        UUID id,
+        String sku,
+        String name,
+        String slug,
+        String description,
+        String brandName,
+        BigDecimal price,
+        BigDecimal compareAtPrice,
+        ProductStatus status,
+        UUID categoryId,
+        String categoryName,
+        String categorySlug,
+        Long ratingSum,
+        Integer ratingCount,
+        BigDecimal ratingAvg,
+        Map<String, Object> attributes,
+        List<Map<String, String>> images,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt
+) {
+}
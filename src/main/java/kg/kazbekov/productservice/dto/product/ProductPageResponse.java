@@ -0,0 +1,29 @@
+package kg.kazbekov.productservice.dto.product;
+
+import kg.kazbekov.productservice.dto.PageMeta;
+import kg.kazbekov.productservice.dto.PagedResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Страница каталога: PagedResponse плюс фасеты, которые есть только у списка товаров
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPageResponse {
+    private List<ProductResponse> data;
+    private PageMeta meta;
+    private ProductFacets facets;
+
+    public static ProductPageResponse of(PagedResponse<ProductResponse> page, ProductFacets facets) {
+        return ProductPageResponse.builder()
+                .data(page.getData())
+                .meta(page.getMeta())
+                .facets(facets)
+                .build();
+    }
+}
@@ -14,7 +14,7 @@ import java.util.Map;
 import java.util.UUID;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -34,6 +34,7 @@ public class ProductResponse {
     private CategoryInfo category;
     private Map<String, Object> attributes;
     private List<ImageInfo> images;
+    private RatingInfo rating;
 
     private OffsetDateTime createdAt;
     private OffsetDateTime updatedAt;
@@ -48,6 +49,15 @@ public class ProductResponse {
         private String slug;
     }
 
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RatingInfo {
+        private Double averageRating;
+        private Long totalReviews;
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -0,0 +1,24 @@
+package kg.kazbekov.productservice.dto.product;
+
+import kg.kazbekov.productservice.model.ProductStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchHit {
+    private UUID id;
+    private String name;
+    private String slug;
+    private String brandName;
+    private BigDecimal price;
+    private ProductStatus status;
+    private UUID categoryId;
+}
@@ -0,0 +1,91 @@
+package kg.kazbekov.productservice.dto.product;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+public record ProductSort(Field field, boolean ascending) {
+
+    public static final ProductSort NEWEST = new ProductSort(Field.CREATED_AT, false);
+
+    public enum Field {
+        PRICE("price", "p.price"),
+        NAME("name", "p.name"),
+        CREATED_AT("created_at", "p.created_at"),
+        RATING("rating", "p.rating_avg");
+
+        private final String key;
+        private final String expression;
+
+        Field(String key, String expression) {
+            this.key = key;
+            this.expression = expression;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public String expression() {
+            return expression;
+        }
+
+        public String cursorValue(ProductListItem product) {
+            return switch (this) {
+                case PRICE -> product.price().toPlainString();
+                case NAME -> product.name();
+                case CREATED_AT -> product.createdAt().toInstant().toString();
+                case RATING -> product.ratingAvg().toPlainString();
+            };
+        }
+
+        public Object parseCursorValue(String value) {
+            return switch (this) {
+                case PRICE, RATING -> new BigDecimal(value);
+                case NAME -> value;
+                case CREATED_AT -> OffsetDateTime.ofInstant(Instant.parse(value), ZoneOffset.UTC);
+            };
+        }
+
+        static Field fromKey(String key) {
+            return Arrays.stream(values())
+                    .filter(field -> field.key.equals(key))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unsupported sort field: " + key + ". Allowed: "
+                            + Arrays.stream(values()).map(Field::key).collect(Collectors.joining(", "))));
+        }
+    }
+
+    public static ProductSort parse(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return null;
+        }
+        String[] parts = sort.trim().toLowerCase(Locale.ROOT).split(":", 2);
+        Field field = Field.fromKey(parts[0]);
+        if (parts.length == 1) {
+            return new ProductSort(field, field != Field.CREATED_AT && field != Field.RATING);
+        }
+        return switch (parts[1]) {
+            case "asc" -> new ProductSort(field, true);
+            case "desc" -> new ProductSort(field, false);
+            default -> throw new IllegalArgumentException("Unsupported sort direction: " + parts[1]);
+        };
+    }
+
+    public String key() {
+        return field.key() + ":" + (ascending ? "asc" : "desc");
+    }
+
+    public String orderBy() {
+        String direction = ascending ? " ASC" : " DESC";
+        return " ORDER BY " + field.expression() + direction + ", p.id" + direction;
+    }
+
+    public String seekPredicate() {
+        return "(" + field.expression() + ", p.id) " + (ascending ? ">" : "<") + " (:cursorValue, :cursorId)";
+    }
+}
@@ -0,0 +1,34 @@
+package kg.kazbekov.productservice.dto.product;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import kg.kazbekov.productservice.event.ProductChangeType;
+import kg.kazbekov.productservice.model.ProductStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Данные SSE-события; для событий с других узлов заполнены только id и type. Массовое изменение
+// приходит одним событием: ids (если их не больше product.events.bulk-max-ids) и count вместо id
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductStreamEvent {
+
+    private UUID id;
+    private ProductChangeType type;
+    private OffsetDateTime changedAt;
+    private String slug;
+    private ProductStatus status;
+    private BigDecimal price;
+    private BigDecimal compareAtPrice;
+    private List<UUID> ids;
+    private Integer count;
+}
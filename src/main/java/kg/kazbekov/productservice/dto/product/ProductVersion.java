@@ -0,0 +1,24 @@
+package kg.kazbekov.productservice.dto.product;
+
+import kg.kazbekov.productservice.dto.ResourceVersion;
+import kg.kazbekov.productservice.dto.review.RatingAggregate;
+
+import java.time.OffsetDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+public record ProductVersion(UUID id, OffsetDateTime updatedAt, OffsetDateTime categoryUpdatedAt) {
+
+    public ResourceVersion toResourceVersion() {
+        return ResourceVersion.of(id.toString(), updatedAt, categoryUpdatedAt);
+    }
+
+    // Вариант представления: набор полей и, если запрошен, рейтинг
+    public ResourceVersion toResourceVersion(Set<ProductField> fields, RatingAggregate rating) {
+        StringBuilder tag = new StringBuilder(id.toString()).append("-f").append(ProductField.key(fields));
+        if (rating != null) {
+            tag.append("-r").append(rating.count()).append('.').append(rating.sum());
+        }
+        return ResourceVersion.of(tag.toString(), updatedAt, categoryUpdatedAt);
+    }
+}
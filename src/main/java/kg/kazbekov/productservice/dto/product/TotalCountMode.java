@@ -0,0 +1,21 @@
+package kg.kazbekov.productservice.dto.product;
+
+import java.util.Locale;
+
+public enum TotalCountMode {
+    NONE,
+    EXACT,
+    ESTIMATE;
+
+    public static TotalCountMode from(String value, TotalCountMode defaultMode) {
+        if (value == null || value.isBlank()) {
+            return defaultMode;
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "false", "none" -> NONE;
+            case "true", "exact" -> EXACT;
+            case "estimate" -> ESTIMATE;
+            default -> throw new IllegalArgumentException("Invalid include_total value: " + value);
+        };
+    }
+}
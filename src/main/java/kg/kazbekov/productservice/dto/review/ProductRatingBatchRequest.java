@@ -0,0 +1,23 @@
+package kg.kazbekov.productservice.dto.review;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRatingBatchRequest {
+
+    @NotEmpty(message = "Product IDs are required")
+    @Size(max = 100, message = "At most 100 product IDs are allowed")
+    private List<@NotNull UUID> productIds;
+}
@@ -0,0 +1,10 @@
+package kg.kazbekov.productservice.dto.review;
+
+import java.util.UUID;
+
+public record RatingAggregate(UUID productId, long sum, int count, int[] histogram) {
+
+    public Double averageRating() {
+        return count > 0 ? Math.round(sum * 10.0 / count) / 10.0 : null;
+    }
+}
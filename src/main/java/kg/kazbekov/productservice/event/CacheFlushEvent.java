@@ -0,0 +1,8 @@
+package kg.kazbekov.productservice.event;
+
+import java.time.OffsetDateTime;
+
+// Публикуется, когда уведомления других узлов могли быть пропущены (переподключение LISTEN).
+// missedSince — время БД, после которого изменения могли не дойти; null — неизвестно
+public record CacheFlushEvent(String reason, OffsetDateTime missedSince) {
+}
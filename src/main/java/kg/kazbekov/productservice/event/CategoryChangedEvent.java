@@ -0,0 +1,10 @@
+package kg.kazbekov.productservice.event;
+
+import java.util.UUID;
+
+public record CategoryChangedEvent(UUID categoryId, boolean remote) {
+
+    public CategoryChangedEvent(UUID categoryId) {
+        this(categoryId, false);
+    }
+}
@@ -0,0 +1,225 @@
+package kg.kazbekov.productservice.event;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+// Межузловая инвалидация локальных кешей через Postgres LISTEN/NOTIFY, без внешнего брокера
+@Slf4j
+@Component
+public class ClusterInvalidationBus {
+
+    private static final String PRODUCT = "product";
+    private static final String PRODUCTS = "products";
+    private static final String CATEGORY = "category";
+    // NOTIFY ограничен 8000 байт: id массового изменения уходят пачками
+    private static final int IDS_PER_NOTIFICATION = 150;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final String channel;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final Duration pollTimeout;
+    private final Duration reconnectDelay;
+    private final Duration resyncMargin;
+
+    private volatile boolean running;
+    private volatile Connection listenConnection;
+    // Время БД, до которого уведомления заведомо получены текущим соединением
+    private volatile OffsetDateTime lastHeardAt;
+
+    public ClusterInvalidationBus(JdbcTemplate jdbcTemplate,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${product.invalidation.enabled:true}") boolean enabled,
+                                  @Value("${product.invalidation.channel:product_service_invalidation}") String channel,
+                                  @Value("${spring.datasource.url}") String url,
+                                  @Value("${spring.datasource.username}") String username,
+                                  @Value("${spring.datasource.password}") String password,
+                                  @Value("${product.invalidation.poll-timeout:10s}") Duration pollTimeout,
+                                  @Value("${product.invalidation.reconnect-delay:5s}") Duration reconnectDelay,
+                                  @Value("${product.invalidation.resync-margin:1m}") Duration resyncMargin) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid invalidation channel name: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.channel = channel;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.pollTimeout = pollTimeout;
+        this.reconnectDelay = reconnectDelay;
+        this.resyncMargin = resyncMargin;
+    }
+
+    // NOTIFY уходит в той же транзакции, что и изменение: Postgres доставит его только после коммита
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (enabled && !event.remote()) {
+            notify(PRODUCT, event.type().name(), event.productId().toString());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        if (enabled && !event.remote()) {
+            List<UUID> ids = event.productIds();
+            for (int from = 0; from < ids.size(); from += IDS_PER_NOTIFICATION) {
+                String batch = ids.subList(from, Math.min(from + IDS_PER_NOTIFICATION, ids.size())).stream()
+                        .map(UUID::toString)
+                        .collect(Collectors.joining(","));
+                notify(PRODUCTS, event.type().name(), batch);
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (enabled && !event.remote()) {
+            notify(CATEGORY, "CHANGED", event.categoryId().toString());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            running = true;
+            Thread.ofPlatform().name("cluster-invalidation-listener").daemon().start(this::listenLoop);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        closeQuietly(listenConnection);
+    }
+
+    // Формат: <entity>:<change>:<id>[,<id>...]:<node>. Версия не передаётся: получатель только
+    // инвалидирует запись и перечитывает её из базы, поэтому порядок уведомлений не важен
+    private void notify(String entity, String change, String id) {
+        String payload = entity + ":" + change + ":" + id + ":" + nodeId;
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, channel, payload);
+    }
+
+    private void listenLoop() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                listenConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                log.info("Listening for cache invalidations on channel '{}' as node {}", channel, nodeId);
+                if (connectedBefore) {
+                    // Пока соединения не было, уведомления не копились: сбрасываем локальные кеши, а индекс
+                    // поиска перечитывает только товары, изменённые после последнего подтверждённого момента
+                    OffsetDateTime missedSince = lastHeardAt != null ? lastHeardAt.minus(resyncMargin) : null;
+                    eventPublisher.publishEvent(new CacheFlushEvent("invalidation listener reconnected", missedSince));
+                }
+                connectedBefore = true;
+                poll(connection.unwrap(PGConnection.class), connection);
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    log.warn("Cache invalidation listener disconnected, reconnecting in {}", reconnectDelay, e);
+                    sleep(reconnectDelay);
+                }
+            } finally {
+                listenConnection = null;
+            }
+        }
+    }
+
+    private void poll(PGConnection pgConnection, Connection connection) throws SQLException {
+        int timeoutMillis = (int) pollTimeout.toMillis();
+        try (PreparedStatement clock = connection.prepareStatement("SELECT clock_timestamp()")) {
+            while (running) {
+                // Запрос заодно проверяет соединение: уведомления транзакций, закоммиченных до него,
+                // приходят раньше ответа
+                lastHeardAt = databaseTime(clock);
+                PGNotification[] notifications = pgConnection.getNotifications(timeoutMillis);
+                if (notifications == null) {
+                    continue;
+                }
+                for (PGNotification notification : notifications) {
+                    handle(notification.getParameter());
+                }
+            }
+        }
+    }
+
+    private static OffsetDateTime databaseTime(PreparedStatement clock) throws SQLException {
+        try (ResultSet rs = clock.executeQuery()) {
+            rs.next();
+            return rs.getObject(1, OffsetDateTime.class);
+        }
+    }
+
+    private void handle(String payload) {
+        String[] parts = payload.split(":");
+        if (parts.length != 4) {
+            log.warn("Ignoring malformed invalidation payload: {}", payload);
+            return;
+        }
+        if (nodeId.equals(parts[3])) {
+            return;
+        }
+        try {
+            switch (parts[0]) {
+                case PRODUCT -> eventPublisher.publishEvent(
+                        ProductChangedEvent.remote(UUID.fromString(parts[2]), ProductChangeType.valueOf(parts[1])));
+                case PRODUCTS -> eventPublisher.publishEvent(new ProductsBulkChangedEvent(
+                        Arrays.stream(parts[2].split(",")).map(UUID::fromString).toList(),
+                        ProductChangeType.valueOf(parts[1]), true));
+                case CATEGORY -> eventPublisher.publishEvent(new CategoryChangedEvent(UUID.fromString(parts[2]), true));
+                default -> log.warn("Ignoring invalidation for unknown entity: {}", payload);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to apply invalidation {}", payload, e);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // соединение уже закрыто
+            }
+        }
+    }
+}
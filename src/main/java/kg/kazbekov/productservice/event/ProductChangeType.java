@@ -0,0 +1,10 @@
+package kg.kazbekov.productservice.event;
+
+public enum ProductChangeType {
+    CREATED,
+    UPDATED,
+    STATUS_CHANGED,
+    // Частный случай UPDATED: PUT с новой ценой может менять и другие поля
+    PRICE_CHANGED,
+    DELETED
+}
@@ -0,0 +1,43 @@
+package kg.kazbekov.productservice.event;
+
+import kg.kazbekov.productservice.dto.product.ProductResponse;
+
+import java.util.UUID;
+
+public record ProductChangedEvent(
+        UUID productId,
+        ProductChangeType type,
+        ProductResponse product,
+        String previousSlug,
+        boolean remote
+) {
+
+    public ProductChangedEvent(UUID productId, ProductChangeType type, ProductResponse product, String previousSlug) {
+        this(productId, type, product, previousSlug, false);
+    }
+
+    public static ProductChangedEvent created(ProductResponse product) {
+        return new ProductChangedEvent(product.getId(), ProductChangeType.CREATED, product, null);
+    }
+
+    public static ProductChangedEvent updated(ProductResponse product, String previousSlug) {
+        return new ProductChangedEvent(product.getId(), ProductChangeType.UPDATED, product, previousSlug);
+    }
+
+    public static ProductChangedEvent priceChanged(ProductResponse product, String previousSlug) {
+        return new ProductChangedEvent(product.getId(), ProductChangeType.PRICE_CHANGED, product, previousSlug);
+    }
+
+    public static ProductChangedEvent statusChanged(ProductResponse product) {
+        return new ProductChangedEvent(product.getId(), ProductChangeType.STATUS_CHANGED, product, null);
+    }
+
+    public static ProductChangedEvent deleted(UUID productId) {
+        return new ProductChangedEvent(productId, ProductChangeType.DELETED, null, null);
+    }
+
+    // Изменение на другом узле: в уведомлении только id и тип, состояние перечитывается из БД
+    public static ProductChangedEvent remote(UUID productId, ProductChangeType type) {
+        return new ProductChangedEvent(productId, type, null, null, true);
+    }
+}
@@ -0,0 +1,65 @@
+package kg.kazbekov.productservice.event;
+
+import kg.kazbekov.productservice.dto.product.ProductStreamEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+// История последних SSE-событий для повтора по Last-Event-ID. Не потокобезопасна:
+// ProductEventStream обращается к ней только под своим lock
+final class ProductEventReplay {
+
+    private final String epoch;
+    private final int capacity;
+    private final ArrayDeque<Envelope> events;
+
+    private long sequence;
+
+    ProductEventReplay(String epoch, int capacity) {
+        this.epoch = epoch;
+        this.capacity = capacity;
+        this.events = new ArrayDeque<>(capacity);
+    }
+
+    Envelope append(ProductStreamEvent payload) {
+        Envelope envelope = new Envelope(++sequence, payload);
+        events.addLast(envelope);
+        if (events.size() > capacity) {
+            events.removeFirst();
+        }
+        return envelope;
+    }
+
+    // События после lastEventId по порядку; null — id чужой эпохи, из будущего или уже вытеснен,
+    // и подписчику нужен resync
+    List<Envelope> after(String lastEventId) {
+        int dash = lastEventId.indexOf('-');
+        long last;
+        try {
+            last = dash > 0 && lastEventId.substring(0, dash).equals(epoch)
+                    ? Long.parseLong(lastEventId.substring(dash + 1))
+                    : -1;
+        } catch (NumberFormatException e) {
+            last = -1;
+        }
+        long oldest = events.isEmpty() ? sequence + 1 : events.peekFirst().sequence();
+        if (last < 0 || last + 1 < oldest || last > sequence) {
+            return null;
+        }
+        List<Envelope> missed = new ArrayList<>();
+        for (Envelope envelope : events) {
+            if (envelope.sequence() > last) {
+                missed.add(envelope);
+            }
+        }
+        return missed;
+    }
+
+    String eventId(Envelope envelope) {
+        return epoch + "-" + envelope.sequence();
+    }
+
+    record Envelope(Long sequence, ProductStreamEvent payload) {
+    }
+}
@@ -0,0 +1,225 @@
+package kg.kazbekov.productservice.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import kg.kazbekov.productservice.dto.product.ProductResponse;
+import kg.kazbekov.productservice.dto.product.ProductStreamEvent;
+import kg.kazbekov.productservice.event.ProductEventReplay.Envelope;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// SSE-рассылка изменений товаров после коммита. У каждого подписчика своя ограниченная очередь
+// и виртуальный поток отправки: медленный клиент получает resync, а не тормозит остальных
+@Slf4j
+@Component
+public class ProductEventStream {
+
+    private static final Envelope RESYNC_OVERFLOW = new Envelope(null, null);
+    private static final Envelope RESYNC_REPLAY = new Envelope(null, null);
+
+    // Идентификаторы вида <epoch>-<seq>: после рестарта узла старые Last-Event-ID не совпадут по epoch
+    private final ProductEventReplay replay;
+    private final Object lock = new Object();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final int bufferSize;
+    private final int bulkMaxIds;
+    private final Duration heartbeat;
+    private final Duration timeout;
+    private final Counter resyncs;
+
+    public ProductEventStream(MeterRegistry meterRegistry,
+                              @Value("${product.events.replay-size:10000}") int replaySize,
+                              @Value("${product.events.subscriber-buffer:256}") int bufferSize,
+                              @Value("${product.events.bulk-max-ids:1000}") int bulkMaxIds,
+                              @Value("${product.events.heartbeat:15s}") Duration heartbeat,
+                              @Value("${product.events.timeout:30m}") Duration timeout) {
+        this.bufferSize = bufferSize;
+        this.bulkMaxIds = bulkMaxIds;
+        this.heartbeat = heartbeat;
+        this.timeout = timeout;
+        this.replay = new ProductEventReplay(Long.toString(System.currentTimeMillis(), 36), replaySize);
+        Gauge.builder("product.events.subscribers", subscribers, Set::size)
+                .description("Open product SSE subscriptions")
+                .register(meterRegistry);
+        this.resyncs = Counter.builder("product.events.resyncs")
+                .description("Resync signals sent to product SSE subscribers")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(String lastEventId, Set<ProductChangeType> types) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, withImplied(types), new ArrayBlockingQueue<>(bufferSize));
+        synchronized (lock) {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                replayAfter(lastEventId, subscriber);
+            }
+            subscribers.add(subscriber);
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        subscriber.thread = Thread.ofVirtual().name("product-events-subscriber").start(subscriber::drain);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        publish(event.productId(), event.type(), event.product());
+    }
+
+    // Одно событие на всё массовое изменение: иначе десятки тысяч id переполняют очереди подписчиков
+    // и вытесняют историю для Last-Event-ID
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        List<UUID> ids = event.productIds();
+        if (ids.isEmpty()) {
+            return;
+        }
+        append(ProductStreamEvent.builder()
+                .type(event.type())
+                .changedAt(OffsetDateTime.now(ZoneOffset.UTC))
+                .ids(ids.size() <= bulkMaxIds ? List.copyOf(ids) : null)
+                .count(ids.size())
+                .build());
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void publish(UUID productId, ProductChangeType type, ProductResponse product) {
+        ProductStreamEvent.ProductStreamEventBuilder payload = ProductStreamEvent.builder()
+                .id(productId)
+                .type(type)
+                .changedAt(product != null && product.getUpdatedAt() != null
+                        ? product.getUpdatedAt()
+                        : OffsetDateTime.now(ZoneOffset.UTC));
+        if (product != null && type != ProductChangeType.DELETED) {
+            payload.slug(product.getSlug())
+                    .status(product.getStatus())
+                    .price(product.getPrice())
+                    .compareAtPrice(product.getCompareAtPrice());
+        }
+        append(payload.build());
+    }
+
+    private void append(ProductStreamEvent payload) {
+        synchronized (lock) {
+            Envelope envelope = replay.append(payload);
+            subscribers.forEach(subscriber -> subscriber.offer(envelope));
+        }
+    }
+
+    // Вызывается под lock: пропущенные события кладутся в очередь до новых
+    private void replayAfter(String lastEventId, Subscriber subscriber) {
+        List<Envelope> missed = replay.after(lastEventId);
+        if (missed == null) {
+            subscriber.resync(RESYNC_REPLAY);
+            return;
+        }
+        missed.forEach(subscriber::offer);
+    }
+
+    // Подписчик на UPDATED получает и PRICE_CHANGED, иначе пропустил бы правки названия вместе с ценой
+    private static Set<ProductChangeType> withImplied(Set<ProductChangeType> types) {
+        if (types == null || !types.contains(ProductChangeType.UPDATED)) {
+            return types;
+        }
+        EnumSet<ProductChangeType> expanded = EnumSet.copyOf(types);
+        expanded.add(ProductChangeType.PRICE_CHANGED);
+        return expanded;
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<ProductChangeType> types;
+        private final BlockingQueue<Envelope> queue;
+        private volatile boolean open = true;
+        private volatile Thread thread;
+
+        private Subscriber(SseEmitter emitter, Set<ProductChangeType> types, BlockingQueue<Envelope> queue) {
+            this.emitter = emitter;
+            this.types = types;
+            this.queue = queue;
+        }
+
+        void offer(Envelope envelope) {
+            if (types != null && !types.contains(envelope.payload().getType())) {
+                return;
+            }
+            if (!queue.offer(envelope)) {
+                resync(RESYNC_OVERFLOW);
+            }
+        }
+
+        // Очередь переполнена или история недоступна: события отбрасываются, клиент
+        // досинхронизируется через GET /api/v1/products/changes
+        void resync(Envelope reason) {
+            queue.clear();
+            queue.offer(reason);
+            resyncs.increment();
+        }
+
+        void drain() {
+            try {
+                while (open) {
+                    Envelope envelope = queue.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                    if (envelope == null) {
+                        emitter.send(SseEmitter.event().comment("keepalive"));
+                    } else if (envelope == RESYNC_OVERFLOW || envelope == RESYNC_REPLAY) {
+                        emitter.send(SseEmitter.event()
+                                .name("resync")
+                                .data(Map.of("reason", envelope == RESYNC_OVERFLOW
+                                        ? "buffer_overflow" : "replay_unavailable"), MediaType.APPLICATION_JSON));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(replay.eventId(envelope))
+                                .name(envelope.payload().getType().name())
+                                .data(envelope.payload(), MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                log.debug("Product event subscriber disconnected: {}", e.getMessage());
+                emitter.completeWithError(e);
+            } catch (IllegalStateException e) {
+                // emitter уже завершён (таймаут или закрытие клиентом)
+                log.debug("Product event subscriber completed: {}", e.getMessage());
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            open = false;
+            subscribers.remove(this);
+            Thread current = thread;
+            if (current != null && current != Thread.currentThread()) {
+                current.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package kg.kazbekov.productservice.event;
+
+import java.util.List;
+import java.util.UUID;
+
+// Массовое изменение одним UPDATE: слушатели получают только id, состояние перечитывается из БД
+public record ProductsBulkChangedEvent(List<UUID> productIds, ProductChangeType type, boolean remote) {
+
+    public ProductsBulkChangedEvent(List<UUID> productIds, ProductChangeType type) {
+        this(productIds, type, false);
+    }
+}
@@ -1,12 +1,16 @@
 package kg.kazbekov.productservice.mapper;
 
+import kg.kazbekov.productservice.dto.product.ProductCreateRequest;
+import kg.kazbekov.productservice.dto.product.ProductField;
+import kg.kazbekov.productservice.dto.product.ProductListItem;
 import kg.kazbekov.productservice.dto.product.ProductResponse;
+import kg.kazbekov.productservice.dto.review.RatingAggregate;
 import kg.kazbekov.productservice.model.Product;
 import org.springframework.stereotype.Component;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Component
 public class ProductMapper {
@@ -34,12 +38,87 @@ public class ProductMapper {
                 .build();
     }
 
-    public List<ProductResponse> toResponseList(List<Product> products) {
-        if (products == null) {
-            return Collections.emptyList();
+    // Запрос читает и колонки сортировки/курсора, поэтому каждое поле, как и в project, отдаётся
+    // только если оно запрошено
+    public ProductResponse toResponse(ProductListItem item, Set<ProductField> fields) {
+        if (item == null) {
+            return null;
         }
-        return products.stream()
-                .map(this::toResponse)
+
+        return ProductResponse.builder()
+                .id(fields.contains(ProductField.ID) ? item.id() : null)
+                .sku(fields.contains(ProductField.SKU) ? item.sku() : null)
+                .name(fields.contains(ProductField.NAME) ? item.name() : null)
+                .slug(fields.contains(ProductField.SLUG) ? item.slug() : null)
+                .description(fields.contains(ProductField.DESCRIPTION) ? item.description() : null)
+                .brandName(fields.contains(ProductField.BRAND_NAME) ? item.brandName() : null)
+                .price(fields.contains(ProductField.PRICE) ? item.price() : null)
+                .compareAtPrice(fields.contains(ProductField.COMPARE_AT_PRICE) ? item.compareAtPrice() : null)
+                .status(fields.contains(ProductField.STATUS) ? item.status() : null)
+                .category(ProductField.anyCategory(fields)
+                        ? ProductResponse.CategoryInfo.builder()
+                                .id(fields.contains(ProductField.CATEGORY_ID) ? item.categoryId() : null)
+                                .name(fields.contains(ProductField.CATEGORY_NAME) ? item.categoryName() : null)
+                                .slug(fields.contains(ProductField.CATEGORY_SLUG) ? item.categorySlug() : null)
+                                .build()
+                        : null)
+                .attributes(fields.contains(ProductField.ATTRIBUTES) ? item.attributes() : null)
+                .images(fields.contains(ProductField.IMAGES) ? mapImages(item.images()) : null)
+                .rating(fields.contains(ProductField.RATING)
+                        ? toRatingInfo(new RatingAggregate(item.id(), item.ratingSum(), item.ratingCount(), null))
+                        : null)
+                .createdAt(fields.contains(ProductField.CREATED_AT) ? item.createdAt() : null)
+                .updatedAt(fields.contains(ProductField.UPDATED_AT) ? item.updatedAt() : null)
+                .build();
+    }
+
+    // Проекция уже собранного (кешированного) товара на набор полей
+    public ProductResponse project(ProductResponse product, Set<ProductField> fields) {
+        ProductResponse.CategoryInfo category = product.getCategory();
+        return ProductResponse.builder()
+                .id(fields.contains(ProductField.ID) ? product.getId() : null)
+                .sku(fields.contains(ProductField.SKU) ? product.getSku() : null)
+                .name(fields.contains(ProductField.NAME) ? product.getName() : null)
+                .slug(fields.contains(ProductField.SLUG) ? product.getSlug() : null)
+                .description(fields.contains(ProductField.DESCRIPTION) ? product.getDescription() : null)
+                .brandName(fields.contains(ProductField.BRAND_NAME) ? product.getBrandName() : null)
+                .price(fields.contains(ProductField.PRICE) ? product.getPrice() : null)
+                .compareAtPrice(fields.contains(ProductField.COMPARE_AT_PRICE) ? product.getCompareAtPrice() : null)
+                .status(fields.contains(ProductField.STATUS) ? product.getStatus() : null)
+                .category(category != null && ProductField.anyCategory(fields)
+                        ? ProductResponse.CategoryInfo.builder()
+                                .id(fields.contains(ProductField.CATEGORY_ID) ? category.getId() : null)
+                                .name(fields.contains(ProductField.CATEGORY_NAME) ? category.getName() : null)
+                                .slug(fields.contains(ProductField.CATEGORY_SLUG) ? category.getSlug() : null)
+                                .build()
+                        : null)
+                .attributes(fields.contains(ProductField.ATTRIBUTES) ? product.getAttributes() : null)
+                .images(fields.contains(ProductField.IMAGES) ? product.getImages() : null)
+                .createdAt(fields.contains(ProductField.CREATED_AT) ? product.getCreatedAt() : null)
+                .updatedAt(fields.contains(ProductField.UPDATED_AT) ? product.getUpdatedAt() : null)
+                .build();
+    }
+
+    public List<ProductResponse> toResponseList(List<ProductListItem> items, Set<ProductField> fields) {
+        return items.stream()
+                .map(item -> toResponse(item, fields))
+                .toList();
+    }
+
+    public ProductResponse.RatingInfo toRatingInfo(RatingAggregate rating) {
+        return ProductResponse.RatingInfo.builder()
+                .averageRating(rating.averageRating())
+                .totalReviews((long) rating.count())
+                .build();
+    }
+
+    public List<Map<String, String>> toImageMaps(List<ProductCreateRequest.ImageRequest> images) {
+        return images.stream()
+                .map(img -> Map.of(
+                        "url", img.getUrl(),
+                        "alt", img.getAlt() != null ? img.getAlt() : "",
+                        "primary", String.valueOf(img.getPrimary())
+                ))
                 .toList();
     }
 
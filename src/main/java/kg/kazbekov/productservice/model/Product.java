@@ -6,8 +6,9 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.CurrentTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.annotations.SourceType;
 import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
@@ -22,7 +23,25 @@ import java.util.UUID;
         @Index(name = "idx_products_sku", columnList = "sku"),
         @Index(name = "idx_products_slug", columnList = "slug"),
         @Index(name = "idx_products_category", columnList = "category_id"),
-        @Index(name = "idx_products_status", columnList = "status")
+        @Index(name = "idx_products_status", columnList = "status"),
+        @Index(name = "idx_products_brand_name", columnList = "brand_name"),
+        @Index(name = "idx_products_created_at_id", columnList = "created_at DESC, id DESC"),
+        @Index(name = "idx_products_updated_at_id", columnList = "updated_at, id"),
+        @Index(name = "idx_products_status_category_created_at", columnList = "status, category_id, created_at, id"),
+        @Index(name = "idx_products_status_created_at", columnList = "status, created_at, id"),
+        @Index(name = "idx_products_category_created_at", columnList = "category_id, created_at, id"),
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_status_category_price", columnList = "status, category_id, price, id"),
+        @Index(name = "idx_products_status_price", columnList = "status, price, id"),
+        @Index(name = "idx_products_category_price", columnList = "category_id, price, id"),
+        @Index(name = "idx_products_name_id", columnList = "name, id"),
+        @Index(name = "idx_products_status_category_name", columnList = "status, category_id, name, id"),
+        @Index(name = "idx_products_status_name", columnList = "status, name, id"),
+        @Index(name = "idx_products_category_name", columnList = "category_id, name, id"),
+        @Index(name = "idx_products_rating_id", columnList = "rating_avg DESC, id DESC"),
+        @Index(name = "idx_products_status_category_rating", columnList = "status, category_id, rating_avg, id"),
+        @Index(name = "idx_products_status_rating", columnList = "status, rating_avg, id"),
+        @Index(name = "idx_products_category_rating", columnList = "category_id, rating_avg, id")
 })
 @Getter
 @Setter
@@ -71,11 +90,29 @@ public class Product {
     @Column(columnDefinition = "jsonb")
     private List<Map<String, String>> images;
 
+    // Агрегаты рейтинга: меняются только SQL-инкрементами в ReviewService и сверкой RatingReconciliationJob
+    @Column(name = "rating_sum", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint default 0")
+    private Long ratingSum;
+
+    @Column(name = "rating_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "integer default 0")
+    private Integer ratingCount;
+
+    @Column(name = "rating_histogram", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "integer[] default '{0,0,0,0,0}'")
+    private int[] ratingHistogram;
+
+    @Column(name = "rating_avg", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "numeric(5,4) default 0")
+    private BigDecimal ratingAvg;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private OffsetDateTime createdAt;
 
-    @UpdateTimestamp
+    // Время БД, как и в массовых UPDATE: курсор ленты изменений сравнивается с границей по часам БД
+    @CurrentTimestamp(source = SourceType.DB)
     @Column(name = "updated_at", nullable = false)
     private OffsetDateTime updatedAt;
 
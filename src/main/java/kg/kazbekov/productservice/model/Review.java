@@ -15,7 +15,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "reviews", indexes = {
         @Index(name = "idx_reviews_product", columnList = "product_id"),
-        @Index(name = "idx_reviews_user", columnList = "user_id")
+        @Index(name = "idx_reviews_user", columnList = "user_id"),
+        @Index(name = "uk_reviews_product_user", columnList = "product_id, user_id", unique = true)
 })
 @Getter
 @Setter
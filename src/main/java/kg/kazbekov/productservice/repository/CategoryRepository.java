@@ -1,8 +1,10 @@
 package kg.kazbekov.productservice.repository;
 
 import io.micrometer.observation.annotation.Observed;
+import kg.kazbekov.productservice.cache.CategoryNode;
 import kg.kazbekov.productservice.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -21,4 +23,8 @@ public interface CategoryRepository extends JpaRepository<Category, UUID> {
     List<Category> findByParentIdOrderByNameAsc(UUID parentId);
 
     List<Category> findByIsActiveTrueOrderByNameAsc();
+
+    @Query("SELECT new kg.kazbekov.productservice.cache.CategoryNode(" +
+            "c.id, c.parent.id, c.name, c.slug, c.imageUrl, c.isActive, c.updatedAt) FROM Category c")
+    List<CategoryNode> findAllNodes();
 }
@@ -1,24 +1,69 @@
 package kg.kazbekov.productservice.repository;
 
 import io.micrometer.observation.annotation.Observed;
+import kg.kazbekov.productservice.dto.product.ProductVersion;
+import kg.kazbekov.productservice.dto.review.RatingAggregate;
 import kg.kazbekov.productservice.model.Product;
 import kg.kazbekov.productservice.model.ProductStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, UUID> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, ProductRepositoryCustom {
 
     Optional<Product> findBySku(String sku);
 
-    Optional<Product> findBySlug(String slug);
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findWithCategoryById(UUID id);
+
+    @Query("SELECT p.id FROM Product p WHERE p.slug = :slug")
+    Optional<UUID> findIdBySlug(@Param("slug") String slug);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findWithCategoryByIdIn(Collection<UUID> ids);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findWithCategoryBySlugIn(Collection<String> slugs);
+
+    @Query("SELECT new kg.kazbekov.productservice.dto.product.ProductVersion(p.id, p.updatedAt, c.updatedAt) "
+            + "FROM Product p JOIN p.category c WHERE p.id = :id")
+    Optional<ProductVersion> findVersionById(@Param("id") UUID id);
+
+    @Query("SELECT new kg.kazbekov.productservice.dto.product.ProductVersion(p.id, p.updatedAt, c.updatedAt) "
+            + "FROM Product p JOIN p.category c WHERE p.slug = :slug")
+    Optional<ProductVersion> findVersionBySlug(@Param("slug") String slug);
+
+    @Query("SELECT new kg.kazbekov.productservice.dto.review.RatingAggregate("
+            + "p.id, p.ratingSum, p.ratingCount, p.ratingHistogram) FROM Product p WHERE p.id = :id")
+    Optional<RatingAggregate> findRatingById(@Param("id") UUID id);
+
+    @Query("SELECT new kg.kazbekov.productservice.dto.review.RatingAggregate("
+            + "p.id, p.ratingSum, p.ratingCount, p.ratingHistogram) FROM Product p WHERE p.id IN :ids")
+    List<RatingAggregate> findRatingsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query(value = """
+            UPDATE products SET
+                rating_sum = rating_sum + :rating * :delta,
+                rating_count = rating_count + :delta,
+                rating_histogram[:rating] = rating_histogram[:rating] + :delta,
+                rating_avg = CASE WHEN rating_count + :delta > 0
+                    THEN round(CAST(rating_sum + :rating * :delta AS numeric) / (rating_count + :delta), 4)
+                    ELSE 0 END
+            WHERE id = :productId
+            """, nativeQuery = true)
+    int applyRatingDelta(@Param("productId") UUID productId, @Param("rating") int rating, @Param("delta") int delta);
 
     boolean existsBySku(String sku);
 
@@ -27,21 +72,4 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     Page<Product> findByStatus(ProductStatus status, Pageable pageable);
 
     Page<Product> findByCategoryId(UUID categoryId, Pageable pageable);
-
-    @Query(value = "SELECT * FROM products p WHERE " +
-            "(:categoryId IS NULL OR p.category_id = CAST(:categoryId AS UUID)) AND " +
-            "(:status IS NULL OR p.status = CAST(:status AS VARCHAR)) AND " +
-            "(:search IS NULL OR LOWER(p.name) LIKE LOWER('%' || CAST(:search AS VARCHAR) || '%')) " +
-            "ORDER BY p.created_at DESC",
-            countQuery = "SELECT COUNT(*) FROM products p WHERE " +
-                    "(:categoryId IS NULL OR p.category_id = CAST(:categoryId AS UUID)) AND " +
-                    "(:status IS NULL OR p.status = CAST(:status AS VARCHAR)) AND " +
-                    "(:search IS NULL OR LOWER(p.name) LIKE LOWER('%' || CAST(:search AS VARCHAR) || '%'))",
-            nativeQuery = true)
-    Page<Product> findWithFilters(
-            @Param("categoryId") UUID categoryId,
-            @Param("status") String status,
-            @Param("search") String search,
-            Pageable pageable
-    );
 }
@@ -0,0 +1,53 @@
+package kg.kazbekov.productservice.repository;
+
+import kg.kazbekov.productservice.dto.product.ProductChangeEntry;
+import kg.kazbekov.productservice.dto.product.ProductCursor;
+import kg.kazbekov.productservice.dto.product.ProductFacets;
+import kg.kazbekov.productservice.dto.product.ProductField;
+import kg.kazbekov.productservice.dto.product.ProductFilter;
+import kg.kazbekov.productservice.dto.product.ProductListItem;
+import kg.kazbekov.productservice.dto.product.ProductSort;
+import kg.kazbekov.productservice.model.ProductStatus;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+public interface ProductRepositoryCustom {
+
+    List<ProductListItem> findListItems(ProductFilter filter, ProductSort sort, Set<ProductField> fields,
+                                        Pageable pageable);
+
+    List<ProductListItem> findListItemsAfter(ProductFilter filter, ProductSort sort, Set<ProductField> fields,
+                                             ProductCursor cursor, int limit);
+
+    Optional<ProductListItem> findListItem(UUID id, Set<ProductField> fields);
+
+    List<ProductListItem> findListItemsByIds(Collection<UUID> ids, Set<ProductField> fields);
+
+    OffsetDateTime findOldestWriteTransactionStart();
+
+    List<ProductChangeEntry> findChangesAfter(OffsetDateTime sinceAt, UUID sinceId, OffsetDateTime until, int limit);
+
+    String nextAvailableSlug(String baseSlug);
+
+    // Для каждой основы — столько свободных slug, сколько запрошено, одним запросом
+    Map<String, List<String>> nextAvailableSlugs(Map<String, Integer> countsByBase);
+
+    List<UUID> bulkUpdateStatus(ProductFilter filter, List<UUID> ids, ProductStatus status);
+
+    List<UUID> bulkUpdatePrices(ProductFilter filter, List<UUID> ids, BigDecimal price, BigDecimal priceMultiplier,
+                                BigDecimal compareAtPrice, boolean clearCompareAtPrice);
+
+    long countWithFilters(ProductFilter filter);
+
+    long estimateCountWithFilters(ProductFilter filter);
+
+    ProductFacets aggregateFacets(ProductFilter filter, List<String> attributeKeys, List<BigDecimal> priceBounds);
+}
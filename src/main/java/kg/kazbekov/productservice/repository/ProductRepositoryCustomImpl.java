@@ -0,0 +1,459 @@
+package kg.kazbekov.productservice.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import kg.kazbekov.productservice.dto.product.ProductChangeEntry;
+import kg.kazbekov.productservice.dto.product.ProductCursor;
+import kg.kazbekov.productservice.dto.product.ProductFacets;
+import kg.kazbekov.productservice.dto.product.ProductField;
+import kg.kazbekov.productservice.dto.product.ProductFilter;
+import kg.kazbekov.productservice.dto.product.ProductListItem;
+import kg.kazbekov.productservice.dto.product.ProductSort;
+import kg.kazbekov.productservice.model.ProductStatus;
+import kg.kazbekov.productservice.util.SlugUtil;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final String ORDER_BY_RELEVANCE = " ORDER BY ts_rank(p.search_vector, "
+            + "websearch_to_tsquery('simple', :search)) + similarity(p.name, :search) DESC, "
+            + "p.created_at DESC, p.id DESC";
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    // Обе ветки идут по индексам (updated_at, id) и (deleted_at, product_id) и ограничены limit
+    private static final String CHANGES_QUERY = """
+            SELECT id, changed_at, deleted FROM (
+                (SELECT p.id, p.updated_at AS changed_at, false AS deleted FROM products p
+                 WHERE (p.updated_at, p.id) > (:sinceAt, :sinceId) AND p.updated_at <= :until
+                 ORDER BY p.updated_at, p.id LIMIT :limit)
+                UNION ALL
+                (SELECT t.product_id, t.deleted_at, true FROM product_tombstones t
+                 WHERE (t.deleted_at, t.product_id) > (:sinceAt, :sinceId) AND t.deleted_at <= :until
+                 ORDER BY t.deleted_at, t.product_id LIMIT :limit)
+            ) changes
+            ORDER BY changed_at, id
+            LIMIT :limit
+            """;
+
+    // Для каждой основы — она сама и занятые номера основа-N за один запрос: диапазон [основа-, основа.)
+    // идёт по индексу text_pattern_ops, прочие основа-* (case, 15-pro) отсекаются на сервере.
+    // Для самой основы возвращается пустой суффикс
+    private static final String SLUG_SUFFIXES_QUERY = """
+            SELECT b.base, substr(p.slug, length(b.base) + 2) AS suffix
+            FROM unnest(CAST(:bases AS text[])) AS b(base)
+            JOIN products p ON p.slug = b.base
+               OR (p.slug ~>=~ (b.base || '-') AND p.slug ~<~ (b.base || '.')
+                   AND substr(p.slug, length(b.base) + 2) ~ '^[1-9][0-9]{0,8}$')
+            """;
+
+    // Начало самой старой транзакции, которая уже что-то записала (получила xid) и ещё не завершилась;
+    // её строки могут закоммититься с updated_at не моложе этого момента
+    private static final String OLDEST_WRITE_TRANSACTION_QUERY = """
+            SELECT LEAST(now(), COALESCE(MIN(a.xact_start), now())) FROM pg_stat_activity a
+            WHERE a.backend_xid IS NOT NULL AND a.datname = current_database()
+            """;
+
+    private static final TypeReference<Map<String, Object>> ATTRIBUTES_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<List<Map<String, String>>> IMAGES_TYPE = new TypeReference<>() {
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final JsonMapper jsonMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductRepositoryCustomImpl(NamedParameterJdbcTemplate jdbcTemplate, JsonMapper jsonMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    public List<ProductListItem> findListItems(ProductFilter filter, ProductSort sort, Set<ProductField> fields,
+                                               Pageable pageable) {
+        Criteria criteria = Criteria.of(filter);
+        String orderBy = sort != null ? sort.orderBy()
+                : filter.hasSearch() ? ORDER_BY_RELEVANCE : ProductSort.NEWEST.orderBy();
+        criteria.param("limit", pageable.getPageSize());
+        criteria.param("offset", pageable.getOffset());
+        Projection projection = Projection.of(fields, sort);
+        return jdbcTemplate.query(
+                projection.select() + criteria.where() + orderBy + " LIMIT :limit OFFSET :offset",
+                criteria.params(), (rs, rowNum) -> mapListItem(rs, projection.columns()));
+    }
+
+    @Override
+    public List<ProductListItem> findListItemsAfter(ProductFilter filter, ProductSort sort, Set<ProductField> fields,
+                                                    ProductCursor cursor, int limit) {
+        Criteria criteria = Criteria.of(filter);
+        if (cursor != null) {
+            criteria.add(sort.seekPredicate());
+            criteria.param("cursorValue", cursor.typedValue());
+            criteria.param("cursorId", cursor.id());
+        }
+        criteria.param("limit", limit);
+        Projection projection = Projection.of(fields, sort);
+        return jdbcTemplate.query(
+                projection.select() + criteria.where() + sort.orderBy() + " LIMIT :limit",
+                criteria.params(), (rs, rowNum) -> mapListItem(rs, projection.columns()));
+    }
+
+    @Override
+    public Optional<ProductListItem> findListItem(UUID id, Set<ProductField> fields) {
+        Projection projection = Projection.of(fields, null);
+        return jdbcTemplate.query(projection.select() + " WHERE p.id = :id", Map.of("id", id),
+                        (rs, rowNum) -> mapListItem(rs, projection.columns()))
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public List<ProductListItem> findListItemsByIds(Collection<UUID> ids, Set<ProductField> fields) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Projection projection = Projection.of(fields, null);
+        return jdbcTemplate.query(projection.select() + " WHERE p.id = ANY(CAST(:ids AS uuid[]))",
+                Map.of("ids", ids.stream().map(UUID::toString).toArray(String[]::new)),
+                (rs, rowNum) -> mapListItem(rs, projection.columns()));
+    }
+
+    @Override
+    public OffsetDateTime findOldestWriteTransactionStart() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(OLDEST_WRITE_TRANSACTION_QUERY, OffsetDateTime.class);
+    }
+
+    @Override
+    public List<ProductChangeEntry> findChangesAfter(OffsetDateTime sinceAt, UUID sinceId, OffsetDateTime until,
+                                                     int limit) {
+        return jdbcTemplate.query(CHANGES_QUERY,
+                Map.of("sinceAt", sinceAt, "sinceId", sinceId, "until", until, "limit", limit),
+                (rs, rowNum) -> new ProductChangeEntry(
+                        rs.getObject("id", UUID.class),
+                        rs.getObject("changed_at", OffsetDateTime.class),
+                        rs.getBoolean("deleted")));
+    }
+
+    @Override
+    public String nextAvailableSlug(String baseSlug) {
+        return nextAvailableSlugs(Map.of(baseSlug, 1)).get(baseSlug).getFirst();
+    }
+
+    @Override
+    public Map<String, List<String>> nextAvailableSlugs(Map<String, Integer> countsByBase) {
+        Map<String, List<String>> suffixes = new HashMap<>();
+        countsByBase.keySet().forEach(base -> suffixes.put(base, new ArrayList<>()));
+        jdbcTemplate.query(SLUG_SUFFIXES_QUERY,
+                Map.of("bases", countsByBase.keySet().toArray(String[]::new)),
+                rs -> {
+                    suffixes.get(rs.getString("base")).add(rs.getString("suffix"));
+                });
+        Map<String, List<String>> slugs = new HashMap<>();
+        countsByBase.forEach((base, count) -> slugs.put(base, SlugUtil.freeSlugs(base, suffixes.get(base), count)));
+        return slugs;
+    }
+
+    @Override
+    public List<UUID> bulkUpdateStatus(ProductFilter filter, List<UUID> ids, ProductStatus status) {
+        Criteria criteria = Criteria.of(filter, ids);
+        criteria.add("p.status <> :newStatus");
+        criteria.param("newStatus", status.name());
+        return bulkUpdate("status = :newStatus", criteria);
+    }
+
+    @Override
+    public List<UUID> bulkUpdatePrices(ProductFilter filter, List<UUID> ids, BigDecimal price,
+                                       BigDecimal priceMultiplier, BigDecimal compareAtPrice,
+                                       boolean clearCompareAtPrice) {
+        Criteria criteria = Criteria.of(filter, ids);
+        StringJoiner set = new StringJoiner(", ");
+        StringJoiner changed = new StringJoiner(" OR ", "(", ")");
+        String newPrice = price != null ? ":newPrice"
+                // Округление маленькой цены не должно дать 0.00: минимальная цена — 0.01
+                : priceMultiplier != null ? "GREATEST(round(p.price * :priceMultiplier, 2), 0.01)" : null;
+        if (newPrice != null) {
+            set.add("price = " + newPrice);
+            changed.add("p.price <> " + newPrice);
+            criteria.param("newPrice", price);
+            criteria.param("priceMultiplier", priceMultiplier);
+        }
+        if (compareAtPrice != null || clearCompareAtPrice) {
+            String newCompareAtPrice = clearCompareAtPrice ? "CAST(NULL AS numeric)" : ":newCompareAtPrice";
+            set.add("compare_at_price = " + newCompareAtPrice);
+            changed.add("p.compare_at_price IS DISTINCT FROM " + newCompareAtPrice);
+            criteria.param("newCompareAtPrice", compareAtPrice);
+        }
+        criteria.add(changed.toString());
+        return bulkUpdate(set.toString(), criteria);
+    }
+
+    // Один UPDATE ... RETURNING на всю выборку; строки без фактических изменений не трогаются
+    private List<UUID> bulkUpdate(String set, Criteria criteria) {
+        // clock_timestamp(), а не now(): отметка не раньше момента записи (см. ProductChangeFeedService)
+        return jdbcTemplate.query("UPDATE products p SET " + set + ", updated_at = clock_timestamp()"
+                        + criteria.where() + " RETURNING p.id",
+                criteria.params(), (rs, rowNum) -> rs.getObject(1, UUID.class));
+    }
+
+    @Override
+    public long countWithFilters(ProductFilter filter) {
+        Criteria criteria = Criteria.of(filter);
+        Query query = entityManager.createNativeQuery("SELECT COUNT(*) FROM products p" + criteria.where());
+        criteria.bind(query);
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    @Override
+    public long estimateCountWithFilters(ProductFilter filter) {
+        Criteria criteria = Criteria.of(filter);
+        Query query = entityManager.createNativeQuery("EXPLAIN SELECT 1 FROM products p" + criteria.where());
+        criteria.bind(query);
+        List<?> plan = query.getResultList();
+        if (plan.isEmpty()) {
+            return 0;
+        }
+        Matcher matcher = PLAN_ROWS.matcher(plan.get(0).toString());
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+
+    @Override
+    public ProductFacets aggregateFacets(ProductFilter filter, List<String> attributeKeys,
+                                         List<BigDecimal> priceBounds) {
+        Criteria criteria = Criteria.of(filter);
+        StringJoiner bounds = new StringJoiner(", ", "ARRAY[", "]");
+        for (int i = 0; i < priceBounds.size(); i++) {
+            bounds.add(":priceBound" + i);
+            criteria.param("priceBound" + i, priceBounds.get(i));
+        }
+
+        StringBuilder columns = new StringBuilder("p.brand_name, p.status, width_bucket(p.price, CAST(")
+                .append(bounds).append(" AS numeric[])) AS price_bucket");
+        StringBuilder groupingColumns = new StringBuilder(
+                "GROUPING(f.brand_name), GROUPING(f.price_bucket), GROUPING(f.status)");
+        StringBuilder groupingSets = new StringBuilder("(f.brand_name), (f.price_bucket), (f.status)");
+        StringBuilder values = new StringBuilder("f.brand_name, f.price_bucket, f.status");
+        for (int i = 0; i < attributeKeys.size(); i++) {
+            columns.append(", p.attributes ->> :attributeKey").append(i).append(" AS attr").append(i);
+            criteria.param("attributeKey" + i, attributeKeys.get(i));
+            groupingColumns.append(", GROUPING(f.attr").append(i).append(')');
+            groupingSets.append(", (f.attr").append(i).append(')');
+            values.append(", f.attr").append(i);
+        }
+
+        Query query = entityManager.createNativeQuery(
+                "SELECT " + groupingColumns + ", " + values + ", COUNT(*) FROM ("
+                        + "SELECT " + columns + " FROM products p" + criteria.where()
+                        + ") f GROUP BY GROUPING SETS (" + groupingSets + ") ORDER BY COUNT(*) DESC");
+        criteria.bind(query);
+        return decodeFacets(query.getResultList(), attributeKeys, priceBounds);
+    }
+
+    // Строка GROUPING SETS: флаги GROUPING по каждому набору (0 у набора, к которому относится строка),
+    // затем значения в том же порядке и COUNT(*). Порядок наборов: бренд, ценовой диапазон, статус, атрибуты
+    static ProductFacets decodeFacets(List<?> rows, List<String> attributeKeys, List<BigDecimal> priceBounds) {
+        int sets = 3 + attributeKeys.size();
+        Map<String, Long> brands = new LinkedHashMap<>();
+        Map<ProductStatus, Long> statuses = new EnumMap<>(ProductStatus.class);
+        Map<Integer, Long> buckets = new TreeMap<>();
+        Map<String, Map<String, Long>> attributes = new LinkedHashMap<>();
+        attributeKeys.forEach(key -> attributes.put(key, new LinkedHashMap<>()));
+
+        for (Object row : rows) {
+            Object[] columnsOfRow = (Object[]) row;
+            int set = 0;
+            while (set < sets && ((Number) columnsOfRow[set]).intValue() != 0) {
+                set++;
+            }
+            Object value = columnsOfRow[sets + set];
+            long count = ((Number) columnsOfRow[2 * sets]).longValue();
+            if (value == null) {
+                continue;
+            }
+            switch (set) {
+                case 0 -> brands.put(value.toString(), count);
+                case 1 -> buckets.put(((Number) value).intValue(), count);
+                case 2 -> statuses.put(ProductStatus.valueOf(value.toString()), count);
+                default -> attributes.get(attributeKeys.get(set - 3)).put(value.toString(), count);
+            }
+        }
+
+        List<ProductFacets.PriceRange> priceRanges = new ArrayList<>();
+        buckets.forEach((bucket, count) -> priceRanges.add(ProductFacets.PriceRange.builder()
+                .from(bucket > 0 ? priceBounds.get(bucket - 1) : null)
+                .to(bucket < priceBounds.size() ? priceBounds.get(bucket) : null)
+                .count(count)
+                .build()));
+
+        return ProductFacets.builder()
+                .brands(brands)
+                .priceRanges(priceRanges)
+                .statuses(statuses)
+                .attributes(attributeKeys.isEmpty() ? null : attributes)
+                .build();
+    }
+
+    // Читаются только выбранные колонки; остальные поля строки остаются null
+    private ProductListItem mapListItem(ResultSet rs, Set<String> columns) throws SQLException {
+        return new ProductListItem(
+                rs.getObject("id", UUID.class),
+                columns.contains("sku") ? rs.getString("sku") : null,
+                columns.contains("name") ? rs.getString("name") : null,
+                columns.contains("slug") ? rs.getString("slug") : null,
+                columns.contains("description") ? rs.getString("description") : null,
+                columns.contains("brand_name") ? rs.getString("brand_name") : null,
+                columns.contains("price") ? rs.getBigDecimal("price") : null,
+                columns.contains("compare_at_price") ? rs.getBigDecimal("compare_at_price") : null,
+                columns.contains("status") ? ProductStatus.valueOf(rs.getString("status")) : null,
+                columns.contains("category_id") ? rs.getObject("category_id", UUID.class) : null,
+                columns.contains("category_name") ? rs.getString("category_name") : null,
+                columns.contains("category_slug") ? rs.getString("category_slug") : null,
+                columns.contains("rating_sum") ? rs.getLong("rating_sum") : null,
+                columns.contains("rating_count") ? rs.getInt("rating_count") : null,
+                columns.contains("rating_avg") ? rs.getBigDecimal("rating_avg") : null,
+                columns.contains("attributes") ? readJson(rs.getString("attributes"), ATTRIBUTES_TYPE) : null,
+                columns.contains("images") ? readJson(rs.getString("images"), IMAGES_TYPE) : null,
+                columns.contains("created_at") ? rs.getObject("created_at", OffsetDateTime.class) : null,
+                columns.contains("updated_at") ? rs.getObject("updated_at", OffsetDateTime.class) : null
+        );
+    }
+
+    private <T> T readJson(String json, TypeReference<T> type) {
+        return json != null ? jsonMapper.readValue(json, type) : null;
+    }
+
+    // SELECT по набору полей: id и колонка сортировки (нужна курсору) читаются всегда,
+    // categories присоединяются только если запрошено поле категории
+    private record Projection(String select, Set<String> columns) {
+
+        static Projection of(Set<ProductField> fields, ProductSort sort) {
+            Set<String> expressions = new LinkedHashSet<>();
+            expressions.add("p.id");
+            fields.forEach(field -> expressions.addAll(field.columns()));
+            if (sort != null) {
+                expressions.add(sort.field().expression());
+            }
+            Set<String> columns = new HashSet<>();
+            expressions.forEach(expression -> columns.add(columnLabel(expression)));
+            String from = ProductField.anyCategory(fields)
+                    ? " FROM products p JOIN categories c ON c.id = p.category_id"
+                    : " FROM products p";
+            return new Projection("SELECT " + String.join(", ", expressions) + from, columns);
+        }
+
+        private static String columnLabel(String expression) {
+            int alias = expression.indexOf(" AS ");
+            return alias >= 0 ? expression.substring(alias + 4) : expression.substring(expression.indexOf('.') + 1);
+        }
+    }
+
+    private static final class Criteria {
+
+        private final StringJoiner clauses = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+        private final Map<String, Object> params = new LinkedHashMap<>();
+
+        static Criteria of(ProductFilter filter) {
+            Criteria criteria = new Criteria();
+            if (filter.getCategoryId() != null) {
+                criteria.add("p.category_id = :categoryId");
+                criteria.param("categoryId", filter.getCategoryId());
+            }
+            if (filter.getStatus() != null) {
+                criteria.add("p.status = :status");
+                criteria.param("status", filter.getStatus().name());
+            }
+            if (filter.getBrandName() != null) {
+                criteria.add("p.brand_name = :brandName");
+                criteria.param("brandName", filter.getBrandName());
+            }
+            if (filter.hasSearch()) {
+                String search = filter.getSearch().trim();
+                criteria.add("(p.search_vector @@ websearch_to_tsquery('simple', :search) "
+                        + "OR p.name ILIKE :searchPattern)");
+                criteria.param("search", search);
+                criteria.param("searchPattern", "%" + escapeLike(search) + "%");
+            }
+            if (filter.getMinPrice() != null) {
+                criteria.add("p.price >= :minPrice");
+                criteria.param("minPrice", filter.getMinPrice());
+            }
+            if (filter.getMaxPrice() != null) {
+                criteria.add("p.price <= :maxPrice");
+                criteria.param("maxPrice", filter.getMaxPrice());
+            }
+            if (filter.isOnSale()) {
+                criteria.add("p.compare_at_price > p.price");
+            }
+            if (filter.hasAttributes()) {
+                StringJoiner pairs = new StringJoiner(", ", "p.attributes @> jsonb_build_object(", ")");
+                int i = 0;
+                for (Map.Entry<String, String> attribute : filter.getAttributes().entrySet()) {
+                    pairs.add("CAST(:attrKey" + i + " AS text), CAST(:attrValue" + i + " AS text)");
+                    criteria.param("attrKey" + i, attribute.getKey());
+                    criteria.param("attrValue" + i, attribute.getValue());
+                    i++;
+                }
+                criteria.add(pairs.toString());
+            }
+            return criteria;
+        }
+
+        static Criteria of(ProductFilter filter, List<UUID> ids) {
+            Criteria criteria = of(filter);
+            if (ids != null && !ids.isEmpty()) {
+                criteria.add("p.id = ANY(CAST(:ids AS uuid[]))");
+                criteria.param("ids", ids.stream().map(UUID::toString).toArray(String[]::new));
+            }
+            return criteria;
+        }
+
+        private static String escapeLike(String value) {
+            return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        }
+
+        void add(String clause) {
+            clauses.add(clause);
+        }
+
+        void param(String name, Object value) {
+            params.put(name, value);
+        }
+
+        String where() {
+            return clauses.toString();
+        }
+
+        Map<String, Object> params() {
+            return params;
+        }
+
+        void bind(Query query) {
+            params.forEach(query::setParameter);
+        }
+    }
+}
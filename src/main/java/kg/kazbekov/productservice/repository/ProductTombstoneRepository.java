@@ -0,0 +1,11 @@
+package kg.kazbekov.productservice.repository;
+
+import kg.kazbekov.productservice.model.ProductTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, UUID> {
+}
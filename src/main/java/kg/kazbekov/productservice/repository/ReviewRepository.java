@@ -5,6 +5,7 @@ import kg.kazbekov.productservice.model.Review;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,11 +17,22 @@ public interface ReviewRepository extends JpaRepository<Review, UUID> {
 
     Page<Review> findByProductIdOrderByCreatedAtDesc(UUID productId, Pageable pageable);
 
-    @Query("SELECT AVG(r.rating) FROM Review r WHERE r.product.id = :productId")
-    Double getAverageRatingByProductId(@Param("productId") UUID productId);
-
-    @Query("SELECT COUNT(r) FROM Review r WHERE r.product.id = :productId")
-    Long countByProductId(@Param("productId") UUID productId);
-
-    boolean existsByProductIdAndUserId(UUID productId, UUID userId);
+    // Удаление отзыва и декремент агрегатов товара одним запросом; 0, если отзыва нет.
+    // GREATEST не даёт уйти в минус, если агрегаты разошлись с reviews (их исправит сверка)
+    @Modifying
+    @Query(value = """
+            WITH deleted AS (
+                DELETE FROM reviews WHERE id = :reviewId RETURNING product_id, rating
+            )
+            UPDATE products p SET
+                rating_sum = GREATEST(p.rating_sum - d.rating, 0),
+                rating_count = GREATEST(p.rating_count - 1, 0),
+                rating_histogram[d.rating] = GREATEST(p.rating_histogram[d.rating] - 1, 0),
+                rating_avg = CASE WHEN p.rating_count > 1
+                    THEN round(CAST(p.rating_sum - d.rating AS numeric) / (p.rating_count - 1), 4)
+                    ELSE 0 END
+            FROM deleted d
+            WHERE p.id = d.product_id
+            """, nativeQuery = true)
+    int deleteAndDecrementRating(@Param("reviewId") UUID reviewId);
 }
@@ -0,0 +1,359 @@
+package kg.kazbekov.productservice.search;
+
+import kg.kazbekov.productservice.model.ProductStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+public class ProductSearchIndex {
+
+    private static final BitSet EMPTY = new BitSet();
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Удалённые документы оставляют дыры в ordinals; при их доле выше порога индекс уплотняется
+    private static final int COMPACT_MIN_HOLES = 1024;
+    private static final double COMPACT_HOLE_RATIO = 0.25;
+    private static final long MEMORY_ESTIMATE_TTL_NANOS = 30_000_000_000L;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final List<Document> documents = new ArrayList<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private BitSet live = new BitSet();
+    private final Map<ProductStatus, BitSet> byStatus = new EnumMap<>(ProductStatus.class);
+    private final Map<UUID, BitSet> byCategory = new HashMap<>();
+
+    private volatile long memoryEstimate = -1;
+    private volatile long memoryEstimatedAt;
+
+    public record Document(UUID id, String name, String slug, String brandName,
+                           BigDecimal price, ProductStatus status, UUID categoryId) {
+    }
+
+    public record Result(long totalCount, List<Document> documents) {
+    }
+
+    public static Set<String> tokenize(String... values) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            for (String token : TOKEN_SEPARATOR.split(value.toLowerCase(Locale.ROOT))) {
+                if (!token.isEmpty()) {
+                    terms.add(token);
+                }
+            }
+        }
+        return terms;
+    }
+
+    public void put(Document document) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = ordinals.get(document.id());
+            int ordinal;
+            if (existing != null) {
+                ordinal = existing;
+                unindex(ordinal, documents.get(ordinal));
+                documents.set(ordinal, document);
+            } else {
+                ordinal = documents.size();
+                ordinals.put(document.id(), ordinal);
+                documents.add(document);
+            }
+            index(ordinal, document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal != null) {
+                unindex(ordinal, documents.get(ordinal));
+                documents.set(ordinal, null);
+                int holes = documents.size() - ordinals.size();
+                if (holes >= COMPACT_MIN_HOLES && holes > documents.size() * COMPACT_HOLE_RATIO) {
+                    compact();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Result search(String query, ProductStatus status, UUID categoryId, int offset, int limit) {
+        Set<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return new Result(0, List.of());
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    return new Result(0, List.of());
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(Postings::size));
+
+            int[] candidates = lists.get(0).toArray();
+            for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+                candidates = lists.get(i).intersect(candidates);
+            }
+
+            // Фильтры проверяются по битам кандидата, без копии live
+            BitSet statusBits = status != null ? byStatus.getOrDefault(status, EMPTY) : null;
+            BitSet categoryBits = categoryId != null ? byCategory.getOrDefault(categoryId, EMPTY) : null;
+            List<Document> page = new ArrayList<>(Math.min(limit, candidates.length));
+            long total = 0;
+            for (int i = candidates.length - 1; i >= 0; i--) {
+                int ordinal = candidates[i];
+                if (!live.get(ordinal)
+                        || (statusBits != null && !statusBits.get(ordinal))
+                        || (categoryBits != null && !categoryBits.get(ordinal))) {
+                    continue;
+                }
+                if (total >= offset && page.size() < limit) {
+                    page.add(documents.get(ordinal));
+                }
+                total++;
+            }
+            return new Result(total, page);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int documentCount() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Gauge опрашивается при каждом scrape, а обход всего индекса держит read lock: оценка кешируется
+    public long estimateMemoryBytes() {
+        long now = System.nanoTime();
+        if (memoryEstimate >= 0 && now - memoryEstimatedAt < MEMORY_ESTIMATE_TTL_NANOS) {
+            return memoryEstimate;
+        }
+        long bytes = computeMemoryBytes();
+        memoryEstimate = bytes;
+        memoryEstimatedAt = now;
+        return bytes;
+    }
+
+    private long computeMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                bytes += 64 + 2L * entry.getKey().length() + entry.getValue().memoryBytes();
+            }
+            for (Document document : documents) {
+                bytes += 8;
+                if (document != null) {
+                    bytes += 160 + 2L * length(document.name()) + 2L * length(document.slug())
+                            + 2L * length(document.brandName());
+                }
+            }
+            bytes += 64L * ordinals.size();
+            bytes += live.size() / 8;
+            for (BitSet bits : byStatus.values()) {
+                bytes += bits.size() / 8;
+            }
+            for (BitSet bits : byCategory.values()) {
+                bytes += bits.size() / 8;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(int ordinal, Document document) {
+        for (String term : tokenize(document.name(), document.brandName())) {
+            postings.computeIfAbsent(term, t -> new Postings()).add(ordinal);
+        }
+        live.set(ordinal);
+        if (document.status() != null) {
+            byStatus.computeIfAbsent(document.status(), s -> new BitSet()).set(ordinal);
+        }
+        if (document.categoryId() != null) {
+            byCategory.computeIfAbsent(document.categoryId(), c -> new BitSet()).set(ordinal);
+        }
+    }
+
+    private void unindex(int ordinal, Document document) {
+        for (String term : tokenize(document.name(), document.brandName())) {
+            Postings list = postings.get(term);
+            if (list != null && list.remove(ordinal) && list.size() == 0) {
+                postings.remove(term);
+            }
+        }
+        live.clear(ordinal);
+        if (document.status() != null) {
+            byStatus.get(document.status()).clear(ordinal);
+        }
+        if (document.categoryId() != null) {
+            BitSet bits = byCategory.get(document.categoryId());
+            bits.clear(ordinal);
+            if (bits.isEmpty()) {
+                byCategory.remove(document.categoryId());
+            }
+        }
+    }
+
+    // Перенумерация живых документов подряд с сохранением порядка (поиск идёт от новых к старым).
+    // Отображение монотонно, поэтому posting-списки остаются отсортированными. Вызывается под write lock
+    private void compact() {
+        int[] remap = new int[documents.size()];
+        List<Document> compacted = new ArrayList<>(ordinals.size());
+        for (int ordinal = 0; ordinal < documents.size(); ordinal++) {
+            Document document = documents.get(ordinal);
+            if (document == null) {
+                remap[ordinal] = -1;
+                continue;
+            }
+            remap[ordinal] = compacted.size();
+            ordinals.put(document.id(), compacted.size());
+            compacted.add(document);
+        }
+        documents.clear();
+        documents.addAll(compacted);
+        postings.values().forEach(list -> list.remap(remap));
+
+        // Новые BitSet, а не clear(): clear не отдаёт память под хвост удалённых ordinals
+        live = new BitSet(documents.size());
+        byStatus.clear();
+        byCategory.clear();
+        for (int ordinal = 0; ordinal < documents.size(); ordinal++) {
+            Document document = documents.get(ordinal);
+            live.set(ordinal);
+            if (document.status() != null) {
+                byStatus.computeIfAbsent(document.status(), st -> new BitSet()).set(ordinal);
+            }
+            if (document.categoryId() != null) {
+                byCategory.computeIfAbsent(document.categoryId(), c -> new BitSet()).set(ordinal);
+            }
+        }
+        memoryEstimate = -1;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private static final class Postings {
+
+        private int[] ordinals = new int[1];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void add(int ordinal) {
+            if (size > 0 && ordinals[size - 1] < ordinal) {
+                append(ordinal);
+                return;
+            }
+            int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            ensureCapacity();
+            System.arraycopy(ordinals, insertAt, ordinals, insertAt + 1, size - insertAt);
+            ordinals[insertAt] = ordinal;
+            size++;
+        }
+
+        boolean remove(int ordinal) {
+            int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ordinals, position + 1, ordinals, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ordinals, size);
+        }
+
+        int[] intersect(int[] sorted) {
+            int[] result = new int[Math.min(size, sorted.length)];
+            int count = 0;
+            int from = 0;
+            for (int ordinal : sorted) {
+                int position = Arrays.binarySearch(ordinals, from, size, ordinal);
+                if (position >= 0) {
+                    result[count++] = ordinal;
+                    from = position + 1;
+                } else {
+                    from = -position - 1;
+                }
+                if (from >= size) {
+                    break;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        void remap(int[] remap) {
+            for (int i = 0; i < size; i++) {
+                ordinals[i] = remap[ordinals[i]];
+            }
+            if (ordinals.length > size + (size >> 1) + 1) {
+                ordinals = Arrays.copyOf(ordinals, Math.max(size, 1));
+            }
+        }
+
+        long memoryBytes() {
+            return 32 + 4L * ordinals.length;
+        }
+
+        private void append(int ordinal) {
+            ensureCapacity();
+            ordinals[size++] = ordinal;
+        }
+
+        private void ensureCapacity() {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size + (size >> 1) + 1);
+            }
+        }
+    }
+}
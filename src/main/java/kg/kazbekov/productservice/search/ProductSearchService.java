@@ -0,0 +1,310 @@
+package kg.kazbekov.productservice.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kg.kazbekov.productservice.dto.PageMeta;
+import kg.kazbekov.productservice.dto.PagedResponse;
+import kg.kazbekov.productservice.dto.product.ProductField;
+import kg.kazbekov.productservice.dto.product.ProductFilter;
+import kg.kazbekov.productservice.dto.product.ProductResponse;
+import kg.kazbekov.productservice.dto.product.ProductSearchHit;
+import kg.kazbekov.productservice.dto.product.TotalCountMode;
+import kg.kazbekov.productservice.event.CacheFlushEvent;
+import kg.kazbekov.productservice.event.ProductChangeType;
+import kg.kazbekov.productservice.event.ProductChangedEvent;
+import kg.kazbekov.productservice.event.ProductsBulkChangedEvent;
+import kg.kazbekov.productservice.model.ProductStatus;
+import kg.kazbekov.productservice.service.ProductService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Service
+public class ProductSearchService {
+
+    private static final String DOCUMENT_COLUMNS = "SELECT id, name, slug, brand_name, price, status, category_id";
+    private static final String BOOTSTRAP_QUERY = DOCUMENT_COLUMNS + " FROM products ORDER BY created_at, id";
+    private static final String RELOAD_QUERY = DOCUMENT_COLUMNS + " FROM products WHERE id = ANY(CAST(? AS uuid[]))";
+    private static final String CHANGED_SINCE_QUERY = "SELECT id FROM products WHERE updated_at >= ? "
+            + "UNION SELECT product_id FROM product_tombstones WHERE deleted_at >= ?";
+    private static final int RELOAD_BATCH_SIZE = 1000;
+
+    private final ProductService productService;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    // Изменения индекса после коммита применяются одним потоком по порядку событий, не задерживая
+    // HTTP-ответ: перечитывание из БД не может перезаписать более позднее изменение
+    private final ExecutorService indexUpdates =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("product-search-index-update").factory());
+
+    private volatile ProductSearchIndex index = new ProductSearchIndex();
+    private volatile boolean ready;
+    // Сборка идёт в одном потоке: повторный запрос во время сборки только помечает индекс устаревшим,
+    // и после текущей сборки выполняется ещё одна
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile boolean rebuildRequested;
+    // Товары, изменённые во время текущей сборки; у каждой сборки свой набор, null — сборки нет
+    private volatile Set<UUID> changedDuringRebuild;
+
+    public ProductSearchService(ProductService productService,
+                                DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${product.search-index.enabled:true}") boolean enabled,
+                                @Value("${product.search-index.fetch-size:5000}") int fetchSize) {
+        this.productService = productService;
+        this.enabled = enabled;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        Gauge.builder("product.search.index.memory", this, s -> s.index.estimateMemoryBytes())
+                .description("Estimated heap footprint of the in-memory product search index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("product.search.index.documents", this, s -> s.index.documentCount())
+                .register(meterRegistry);
+        Gauge.builder("product.search.index.terms", this, s -> s.index.termCount())
+                .register(meterRegistry);
+    }
+
+    public PagedResponse<ProductSearchHit> search(String query, ProductStatus status, UUID categoryId,
+                                                  int page, int limit) {
+        if (page < 1 || limit < 1) {
+            throw new IllegalArgumentException("Page and limit must be positive");
+        }
+
+        if (!ready) {
+            return searchDatabase(query, status, categoryId, page, limit);
+        }
+
+        ProductSearchIndex.Result result = index.search(query, status, categoryId, (page - 1) * limit, limit);
+        return PagedResponse.of(
+                result.documents().stream().map(ProductSearchService::toHit).toList(),
+                PageMeta.of(page, limit, result.totalCount())
+        );
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        rebuildRequested = true;
+        if (rebuilding.compareAndSet(false, true)) {
+            Thread.ofPlatform().name("product-search-index-rebuild").daemon().start(this::runRebuilds);
+        }
+    }
+
+    // Запрос, пришедший после последней проверки rebuildRequested, либо увидит rebuilding == false
+    // и запустит свой поток, либо будет подхвачен повторной проверкой здесь
+    private void runRebuilds() {
+        do {
+            while (rebuildRequested) {
+                rebuildRequested = false;
+                rebuildOnce();
+            }
+            rebuilding.set(false);
+        } while (rebuildRequested && rebuilding.compareAndSet(false, true));
+    }
+
+    private void rebuildOnce() {
+        Set<UUID> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = changed;
+        long started = System.currentTimeMillis();
+        try {
+            ProductSearchIndex fresh = new ProductSearchIndex();
+            readOnlyTransaction.executeWithoutResult(tx -> streamingJdbcTemplate.query(BOOTSTRAP_QUERY, rs -> {
+                fresh.put(toDocument(rs));
+            }));
+            // Подмена в очереди обновлений: всё, что пришло раньше, уже применено к старому индексу,
+            // а изменённые за время сборки товары перечитываются в новый. Слушатель добавляет id
+            // в набор до постановки своего обновления в очередь, поэтому id не теряются
+            CountDownLatch swapped = new CountDownLatch(1);
+            applyInOrder(() -> {
+                try {
+                    index = fresh;
+                    changedDuringRebuild = null;
+                    reload(List.copyOf(changed));
+                    ready = true;
+                    log.info("Product search index built: {} documents, {} terms in {} ms",
+                            fresh.documentCount(), fresh.termCount(), System.currentTimeMillis() - started);
+                } finally {
+                    swapped.countDown();
+                }
+            });
+            // Следующая сборка начинается только после подмены, чтобы не делить с этой набор изменений
+            swapped.await();
+        } catch (RuntimeException e) {
+            changedDuringRebuild = null;
+            log.error("Failed to build product search index", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Set<UUID> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(event.productId());
+        }
+        if (event.type() == ProductChangeType.DELETED) {
+            applyInOrder(() -> index.remove(event.productId()));
+        } else if (event.product() != null) {
+            ProductSearchIndex.Document document = toDocument(event.product());
+            applyInOrder(() -> index.put(document));
+        } else {
+            applyInOrder(() -> reload(List.of(event.productId())));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Set<UUID> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.addAll(event.productIds());
+        }
+        applyInOrder(() -> reload(event.productIds()));
+    }
+
+    // Полная пересборка только если неизвестно, с какого момента пропущены изменения
+    @EventListener
+    public void onFlush(CacheFlushEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.missedSince() == null) {
+            rebuild();
+            return;
+        }
+        List<UUID> productIds = jdbcTemplate.queryForList(CHANGED_SINCE_QUERY, UUID.class,
+                event.missedSince(), event.missedSince());
+        Set<UUID> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.addAll(productIds);
+        }
+        log.info("Reloading {} products changed since {} into search index", productIds.size(), event.missedSince());
+        applyInOrder(() -> reload(productIds));
+    }
+
+    @PreDestroy
+    public void stop() {
+        indexUpdates.shutdownNow();
+    }
+
+    private void applyInOrder(Runnable update) {
+        indexUpdates.execute(() -> {
+            try {
+                update.run();
+            } catch (RuntimeException e) {
+                log.error("Failed to apply product search index update", e);
+            }
+        });
+    }
+
+    // Узкая проекция как при сборке: описание и jsonb-колонки индексу не нужны
+    private void reload(List<UUID> productIds) {
+        for (int from = 0; from < productIds.size(); from += RELOAD_BATCH_SIZE) {
+            List<UUID> batch = productIds.subList(from, Math.min(from + RELOAD_BATCH_SIZE, productIds.size()));
+            Set<UUID> missing = new HashSet<>(batch);
+            String[] ids = batch.stream().map(UUID::toString).toArray(String[]::new);
+            jdbcTemplate.query(RELOAD_QUERY, rs -> {
+                ProductSearchIndex.Document document = toDocument(rs);
+                missing.remove(document.id());
+                index.put(document);
+            }, (Object) ids);
+            missing.forEach(index::remove);
+        }
+    }
+
+    private PagedResponse<ProductSearchHit> searchDatabase(String query, ProductStatus status, UUID categoryId,
+                                                           int page, int limit) {
+        ProductFilter filter = ProductFilter.builder()
+                .categoryId(categoryId)
+                .status(status)
+                .search(query)
+                .build();
+        PagedResponse<ProductResponse> products =
+                productService.getProducts(filter, page, limit, null, null, TotalCountMode.EXACT,
+                        ProductField.CARD);
+        return PagedResponse.of(
+                products.getData().stream().map(ProductSearchService::toHit).toList(),
+                products.getMeta()
+        );
+    }
+
+    private static ProductSearchIndex.Document toDocument(ResultSet rs) throws SQLException {
+        return new ProductSearchIndex.Document(
+                rs.getObject("id", UUID.class),
+                rs.getString("name"),
+                rs.getString("slug"),
+                rs.getString("brand_name"),
+                rs.getBigDecimal("price"),
+                ProductStatus.valueOf(rs.getString("status")),
+                rs.getObject("category_id", UUID.class)
+        );
+    }
+
+    private static ProductSearchIndex.Document toDocument(ProductResponse product) {
+        return new ProductSearchIndex.Document(
+                product.getId(),
+                product.getName(),
+                product.getSlug(),
+                product.getBrandName(),
+                product.getPrice(),
+                product.getStatus(),
+                product.getCategory() != null ? product.getCategory().getId() : null
+        );
+    }
+
+    private static ProductSearchHit toHit(ProductSearchIndex.Document document) {
+        return ProductSearchHit.builder()
+                .id(document.id())
+                .name(document.name())
+                .slug(document.slug())
+                .brandName(document.brandName())
+                .price(document.price())
+                .status(document.status())
+                .categoryId(document.categoryId())
+                .build();
+    }
+
+    private static ProductSearchHit toHit(ProductResponse product) {
+        return toHit(toDocument(product));
+    }
+}
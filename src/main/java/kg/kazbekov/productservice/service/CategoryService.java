@@ -1,8 +1,12 @@
 package kg.kazbekov.productservice.service;
 
+import kg.kazbekov.productservice.cache.CategoryTree;
+import kg.kazbekov.productservice.cache.CategoryTreeCache;
+import kg.kazbekov.productservice.dto.ResourceVersion;
 import kg.kazbekov.productservice.dto.category.CategoryCreateRequest;
 import kg.kazbekov.productservice.dto.category.CategoryResponse;
 import kg.kazbekov.productservice.dto.category.CategoryUpdateRequest;
+import kg.kazbekov.productservice.event.CategoryChangedEvent;
 import kg.kazbekov.productservice.exception.DuplicateResourceException;
 import kg.kazbekov.productservice.exception.ResourceNotFoundException;
 import kg.kazbekov.productservice.mapper.CategoryMapper;
@@ -10,6 +14,7 @@ import kg.kazbekov.productservice.model.Category;
 import kg.kazbekov.productservice.repository.CategoryRepository;
 import kg.kazbekov.productservice.util.SlugUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,27 +27,39 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final CategoryTreeCache categoryTreeCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Transactional(readOnly = true)
     public List<CategoryResponse> getCategoryTree() {
-        List<Category> rootCategories = categoryRepository.findByParentIsNullAndIsActiveTrueOrderByNameAsc();
-        return rootCategories.stream()
-                .map(categoryMapper::toResponseWithChildren)
-                .toList();
+        return categoryTreeCache.get().roots();
     }
 
-    @Transactional(readOnly = true)
     public CategoryResponse getCategoryById(UUID id) {
-        Category category = categoryRepository.findById(id)
+        return categoryTreeCache.get().findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
-        return categoryMapper.toResponseWithChildren(category);
     }
 
-    @Transactional(readOnly = true)
     public CategoryResponse getCategoryBySlug(String slug) {
-        Category category = categoryRepository.findBySlug(slug)
+        return categoryTreeCache.get().findBySlug(slug)
+                .orElseThrow(() -> new ResourceNotFoundException("Category", "slug", slug));
+    }
+
+    public ResourceVersion getCategoryTreeVersion() {
+        return categoryTreeCache.get().version();
+    }
+
+    public ResourceVersion getCategoryVersion(UUID id) {
+        CategoryTree tree = categoryTreeCache.get();
+        CategoryResponse category = tree.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
+        return tree.version(category.getId());
+    }
+
+    public ResourceVersion getCategoryVersionBySlug(String slug) {
+        CategoryTree tree = categoryTreeCache.get();
+        CategoryResponse category = tree.findBySlug(slug)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "slug", slug));
-        return categoryMapper.toResponseWithChildren(category);
+        return tree.version(category.getId());
     }
 
     @Transactional
@@ -69,6 +86,7 @@ public class CategoryService {
         category.setIsActive(request.getIsActive());
 
         category = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(category.getId()));
         return categoryMapper.toResponse(category);
     }
 
@@ -104,6 +122,7 @@ public class CategoryService {
         }
 
         category = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(category.getId()));
         return categoryMapper.toResponse(category);
     }
 
@@ -121,5 +140,6 @@ public class CategoryService {
         }
 
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
     }
 }
@@ -0,0 +1,97 @@
+package kg.kazbekov.productservice.service;
+
+import kg.kazbekov.productservice.dto.product.ProductChangeCursor;
+import kg.kazbekov.productservice.dto.product.ProductChangeEntry;
+import kg.kazbekov.productservice.dto.product.ProductChangesResponse;
+import kg.kazbekov.productservice.dto.product.ProductField;
+import kg.kazbekov.productservice.dto.product.ProductListItem;
+import kg.kazbekov.productservice.dto.product.ProductResponse;
+import kg.kazbekov.productservice.mapper.ProductMapper;
+import kg.kazbekov.productservice.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductChangeFeedService {
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final TransactionTemplate snapshotTransaction;
+    private final Duration settleWindow;
+    private final int maxLimit;
+
+    public ProductChangeFeedService(ProductRepository productRepository,
+                                    ProductMapper productMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${product.changes.settle-window:5s}") Duration settleWindow,
+                                    @Value("${product.changes.max-limit:1000}") int maxLimit) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.settleWindow = settleWindow;
+        this.maxLimit = maxLimit;
+    }
+
+    // Курсор идёт по updated_at, а транзакции коммитятся не в порядке своих отметок. Граница выдачи —
+    // начало самой старой незавершённой пишущей транзакции (и текущее время БД) минус settle-window:
+    // все writer-ы ставят отметку по часам БД не раньше начала своей транзакции (clock_timestamp() или
+    // @CurrentTimestamp(source = DB)), поэтому часы узлов приложения не участвуют; окно — запас.
+    // Граница считается до снимка, поэтому транзакция, не попавшая в неё, пишет уже позже границы
+    public ProductChangesResponse getChanges(String since, int limit, Set<ProductField> fields) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxLimit);
+        }
+        ProductChangeCursor cursor = ProductChangeCursor.decode(since);
+        OffsetDateTime until = productRepository.findOldestWriteTransactionStart().minus(settleWindow);
+        return snapshotTransaction.execute(status -> readChanges(cursor, until, limit, fields));
+    }
+
+    private ProductChangesResponse readChanges(ProductChangeCursor cursor, OffsetDateTime until, int limit,
+                                               Set<ProductField> fields) {
+        List<ProductChangeEntry> entries =
+                productRepository.findChangesAfter(cursor.changedAt(), cursor.id(), until, limit + 1);
+        boolean hasMore = entries.size() > limit;
+        if (hasMore) {
+            entries = entries.subList(0, limit);
+        }
+
+        List<UUID> upsertedIds = entries.stream()
+                .filter(entry -> !entry.deleted())
+                .map(ProductChangeEntry::id)
+                .toList();
+        Map<UUID, ProductResponse> products = productRepository.findListItemsByIds(upsertedIds, fields).stream()
+                .collect(Collectors.toMap(ProductListItem::id, item -> productMapper.toResponse(item, fields)));
+
+        List<ProductChangesResponse.Change> changes = entries.stream()
+                .map(entry -> ProductChangesResponse.Change.builder()
+                        .id(entry.id())
+                        .type(entry.deleted()
+                                ? ProductChangesResponse.ChangeType.DELETED
+                                : ProductChangesResponse.ChangeType.UPSERTED)
+                        .changedAt(entry.changedAt())
+                        .product(products.get(entry.id()))
+                        .build())
+                .toList();
+
+        ProductChangeCursor next = entries.isEmpty() ? cursor
+                : new ProductChangeCursor(entries.getLast().changedAt(), entries.getLast().id());
+        return ProductChangesResponse.builder()
+                .changes(changes)
+                .nextCursor(next.encode())
+                .hasMore(hasMore)
+                .build();
+    }
+}
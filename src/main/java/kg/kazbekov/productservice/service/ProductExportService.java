@@ -0,0 +1,220 @@
+package kg.kazbekov.productservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import kg.kazbekov.productservice.model.ProductStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class ProductExportService {
+
+    // attributes и images читаются как текст и пишутся в NDJSON без разбора
+    private static final String EXPORT_QUERY = "SELECT p.id, p.sku, p.name, p.slug, p.description, p.brand_name, "
+            + "p.price, p.compare_at_price, p.status, p.category_id, CAST(p.attributes AS text) AS attributes, "
+            + "CAST(p.images AS text) AS images, p.created_at, p.updated_at FROM products p";
+    private static final String ORDER_BY = " ORDER BY p.id";
+    private static final String[] CSV_COLUMNS = {"id", "sku", "name", "slug", "description", "brand_name", "price",
+            "compare_at_price", "status", "category_id", "attributes", "images", "created_at", "updated_at"};
+
+    public enum Format {
+        NDJSON,
+        CSV;
+
+        public static Format from(String value) {
+            return Arrays.stream(values())
+                    .filter(format -> format.name().equalsIgnoreCase(value))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unsupported export format: " + value
+                            + ". Allowed: " + Arrays.stream(values())
+                            .map(format -> format.name().toLowerCase(Locale.ROOT))
+                            .collect(Collectors.joining(", "))));
+        }
+    }
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final JsonMapper jsonMapper;
+    private final MeterRegistry meterRegistry;
+
+    public ProductExportService(DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                JsonMapper jsonMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${product.export.fetch-size:1000}") int fetchSize) {
+        this.jsonMapper = jsonMapper;
+        this.meterRegistry = meterRegistry;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        // Один снимок на весь экспорт: параллельные записи не дают дублей и пропусков,
+        // а fetch size внутри транзакции включает серверный курсор вместо чтения всего результата
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    public void export(Format format, ProductStatus status, OutputStream output) {
+        String tag = format.name().toLowerCase(Locale.ROOT);
+        Counter rows = Counter.builder("product.export.rows")
+                .description("Rows written by catalog export")
+                .tag("format", tag)
+                .register(meterRegistry);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        long exported = 0;
+        try {
+            exported = snapshotTransaction.execute(tx -> switch (format) {
+                case NDJSON -> writeNdjson(status, output, rows);
+                case CSV -> writeCsv(status, output, rows);
+            });
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            long nanos = sample.stop(Timer.builder("product.export.duration")
+                    .description("Duration of catalog export")
+                    .tag("format", tag)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            log.info("Exported {} products as {} in {} ms ({})", exported, tag, nanos / 1_000_000, outcome);
+        }
+    }
+
+    private long writeNdjson(ProductStatus status, OutputStream output, Counter rows) {
+        try (JsonGenerator generator = jsonMapper.writer().withRootValueSeparator("\n").createGenerator(output)) {
+            long count = query(status, rs -> {
+                generator.writeStartObject();
+                generator.writeName("id");
+                generator.writeString(rs.getString("id"));
+                writeString(generator, "sku", rs.getString("sku"));
+                writeString(generator, "name", rs.getString("name"));
+                writeString(generator, "slug", rs.getString("slug"));
+                writeString(generator, "description", rs.getString("description"));
+                writeString(generator, "brand_name", rs.getString("brand_name"));
+                writeNumber(generator, "price", rs.getBigDecimal("price"));
+                writeNumber(generator, "compare_at_price", rs.getBigDecimal("compare_at_price"));
+                writeString(generator, "status", rs.getString("status"));
+                writeString(generator, "category_id", rs.getString("category_id"));
+                writeRaw(generator, "attributes", rs.getString("attributes"));
+                writeRaw(generator, "images", rs.getString("images"));
+                writeString(generator, "created_at", timestamp(rs, "created_at"));
+                writeString(generator, "updated_at", timestamp(rs, "updated_at"));
+                generator.writeEndObject();
+                rows.increment();
+            });
+            if (count > 0) {
+                generator.writeRaw('\n');
+            }
+            return count;
+        }
+    }
+
+    private long writeCsv(ProductStatus status, OutputStream output, Counter rows) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        try {
+            writer.write(String.join(",", CSV_COLUMNS));
+            writer.write("\r\n");
+            long count = query(status, rs -> {
+                try {
+                    for (int i = 0; i < CSV_COLUMNS.length; i++) {
+                        if (i > 0) {
+                            writer.write(',');
+                        }
+                        String column = CSV_COLUMNS[i];
+                        writer.write(csv(column.endsWith("_at") ? timestamp(rs, column) : rs.getString(column)));
+                    }
+                    writer.write("\r\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows.increment();
+            });
+            writer.flush();
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long query(ProductStatus status, RowWriter rowWriter) {
+        long[] count = {0};
+        if (status == null) {
+            streamingJdbcTemplate.query(EXPORT_QUERY + ORDER_BY, rs -> {
+                rowWriter.write(rs);
+                count[0]++;
+            });
+        } else {
+            streamingJdbcTemplate.query(EXPORT_QUERY + " WHERE p.status = ?" + ORDER_BY, rs -> {
+                rowWriter.write(rs);
+                count[0]++;
+            }, status.name());
+        }
+        return count[0];
+    }
+
+    private static void writeString(JsonGenerator generator, String name, String value) {
+        if (value != null) {
+            generator.writeName(name);
+            generator.writeString(value);
+        }
+    }
+
+    private static void writeNumber(JsonGenerator generator, String name, BigDecimal value) {
+        if (value != null) {
+            generator.writeName(name);
+            generator.writeNumber(value);
+        }
+    }
+
+    private static void writeRaw(JsonGenerator generator, String name, String json) {
+        if (json != null) {
+            generator.writeName(name);
+            generator.writeRawValue(json);
+        }
+    }
+
+    private static String timestamp(ResultSet rs, String column) throws SQLException {
+        OffsetDateTime value = rs.getObject(column, OffsetDateTime.class);
+        return value != null ? value.toString() : null;
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException;
+    }
+}
@@ -0,0 +1,375 @@
+package kg.kazbekov.productservice.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import kg.kazbekov.productservice.cache.CategoryNode;
+import kg.kazbekov.productservice.cache.CategoryTree;
+import kg.kazbekov.productservice.cache.CategoryTreeCache;
+import kg.kazbekov.productservice.dto.product.ProductCreateRequest;
+import kg.kazbekov.productservice.dto.product.ProductImportResult;
+import kg.kazbekov.productservice.dto.product.ProductImportSummary;
+import kg.kazbekov.productservice.event.ProductChangeType;
+import kg.kazbekov.productservice.event.ProductsBulkChangedEvent;
+import kg.kazbekov.productservice.mapper.ProductMapper;
+import kg.kazbekov.productservice.model.ProductStatus;
+import kg.kazbekov.productservice.repository.ProductRepository;
+import kg.kazbekov.productservice.util.SkuUtil;
+import kg.kazbekov.productservice.util.SlugUtil;
+import kg.kazbekov.productservice.util.SqlStateUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class ProductImportService {
+
+    // Одна вставка на чанк: массивы колонок разворачиваются unnest-ом, конфликты по sku/slug
+    // (параллельные записи) не валят чанк, а возвращаются как DUPLICATE.
+    // updated_at = clock_timestamp(): отметка не раньше самой записи (см. ProductChangeFeedService)
+    private static final String INSERT_SQL = """
+            INSERT INTO products (id, sku, name, slug, description, brand_name, category_id, price,
+                                  compare_at_price, status, attributes, images, created_at, updated_at)
+            SELECT r.id, r.sku, r.name, r.slug, r.description, r.brand_name, r.category_id, r.price,
+                   r.compare_at_price, r.status, CAST(r.attributes AS jsonb), CAST(r.images AS jsonb), now(), clock_timestamp()
+            FROM unnest(?::uuid[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::uuid[],
+                        ?::numeric[], ?::numeric[], ?::text[], ?::text[], ?::text[])
+                AS r(id, sku, name, slug, description, brand_name, category_id, price,
+                     compare_at_price, status, attributes, images)
+            ON CONFLICT DO NOTHING
+            RETURNING id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final CategoryTreeCache categoryTreeCache;
+    private final ProductMapper productMapper;
+    private final ProductRepository productRepository;
+    private final JsonMapper jsonMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+                                NamedParameterJdbcTemplate namedJdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                CategoryTreeCache categoryTreeCache,
+                                ProductMapper productMapper,
+                                ProductRepository productRepository,
+                                JsonMapper jsonMapper,
+                                Validator validator,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${product.import.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.categoryTreeCache = categoryTreeCache;
+        this.productMapper = productMapper;
+        this.productRepository = productRepository;
+        this.jsonMapper = jsonMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    // Читает NDJSON построчно и пишет результат каждой строки сразу после обработки её чанка,
+    // поэтому в памяти находится не больше одного чанка
+    public ProductImportSummary importProducts(InputStream input, OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        ProductImportSummary summary = new ProductImportSummary();
+        List<Line> chunk = new ArrayList<>(chunkSize);
+        int lineNumber = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            lineNumber++;
+            if (text.isBlank()) {
+                continue;
+            }
+            chunk.add(new Line(lineNumber, text));
+            if (chunk.size() == chunkSize) {
+                writeResults(importChunk(chunk), summary, output);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeResults(importChunk(chunk), summary, output);
+        }
+        return summary;
+    }
+
+    private void writeResults(List<ProductImportResult> results, ProductImportSummary summary,
+                              OutputStream output) throws IOException {
+        for (ProductImportResult result : results) {
+            summary.add(result);
+            output.write(jsonMapper.writeValueAsBytes(result));
+            output.write('\n');
+        }
+        output.flush();
+    }
+
+    private List<ProductImportResult> importChunk(List<Line> lines) {
+        ProductImportResult[] results = new ProductImportResult[lines.size()];
+        CategoryTree categories = categoryTreeCache.get();
+        List<Row> rows = new ArrayList<>(lines.size());
+
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            ProductCreateRequest request;
+            try {
+                request = jsonMapper.readValue(line.text(), ProductCreateRequest.class);
+            } catch (JacksonException e) {
+                results[i] = invalid(line.number(), "Malformed JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            Row row = new Row(i, line.number(), request);
+            String error = prepare(row, categories);
+            if (error != null) {
+                results[i] = invalid(line.number(), error);
+            } else {
+                rows.add(row);
+            }
+        }
+
+        rows = rejectDuplicateSkus(rows, results);
+        if (!rows.isEmpty()) {
+            // Ответ 200 уже начат: ошибка базы не обрывает поток, а становится результатом строк чанка
+            try {
+                allocateSlugs(rows);
+                insert(rows, results);
+            } catch (DataAccessException e) {
+                log.warn("Product import chunk at lines {}-{} rejected by database", lines.getFirst().number(),
+                        lines.getLast().number(), e);
+                String error = "Chunk rejected by database (SQLSTATE " + SqlStateUtil.sqlState(e) + "): "
+                        + e.getMostSpecificCause().getMessage();
+                for (Row row : rows) {
+                    results[row.index] = ProductImportResult.builder()
+                            .line(row.line)
+                            .status(ProductImportResult.Status.FAILED)
+                            .sku(row.sku)
+                            .error(error)
+                            .build();
+                }
+            }
+        }
+        return List.of(results);
+    }
+
+    private String prepare(Row row, CategoryTree categories) {
+        ProductCreateRequest request = row.request;
+        Set<ConstraintViolation<ProductCreateRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        row.category = categories.node(request.getCategoryId()).orElse(null);
+        if (row.category == null) {
+            return "Category not found with id: " + request.getCategoryId();
+        }
+        if (request.getStatus() != null) {
+            try {
+                row.status = ProductStatus.valueOf(request.getStatus());
+            } catch (IllegalArgumentException e) {
+                return "Unsupported status: " + request.getStatus();
+            }
+        }
+        if (request.getImages() != null && request.getImages().stream().anyMatch(img -> img.getUrl() == null)) {
+            return "Image url is required";
+        }
+        row.sku = request.getSku() != null ? request.getSku() : SkuUtil.generate();
+        return null;
+    }
+
+    private List<Row> rejectDuplicateSkus(List<Row> rows, ProductImportResult[] results) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        Set<String> existing = new HashSet<>(namedJdbcTemplate.queryForList(
+                "SELECT sku FROM products WHERE sku IN (:skus)",
+                Map.of("skus", rows.stream().map(row -> row.sku).collect(Collectors.toSet())), String.class));
+        Set<String> seen = new HashSet<>();
+        List<Row> accepted = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (existing.contains(row.sku) || !seen.add(row.sku)) {
+                results[row.index] = ProductImportResult.builder()
+                        .line(row.line)
+                        .status(ProductImportResult.Status.DUPLICATE)
+                        .sku(row.sku)
+                        .error("Product already exists with sku: " + row.sku)
+                        .build();
+            } else {
+                accepted.add(row);
+            }
+        }
+        return accepted;
+    }
+
+    // Те же правила, что при создании товара (ProductRepository.nextAvailableSlug): основа или наименьший
+    // свободный номер основа-N, один запрос на все основы чанка
+    private void allocateSlugs(List<Row> rows) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Row row : rows) {
+            String base = SlugUtil.toSlug(row.request.getName());
+            row.slug = base.isEmpty() ? SlugUtil.toSlug(row.sku) : base;
+            counts.merge(row.slug, 1, Integer::sum);
+        }
+        Map<String, Iterator<String>> free = new HashMap<>();
+        productRepository.nextAvailableSlugs(counts).forEach((base, slugs) -> free.put(base, slugs.iterator()));
+        for (Row row : rows) {
+            row.slug = free.get(row.slug).next();
+        }
+    }
+
+    private void insert(List<Row> rows, ProductImportResult[] results) {
+        rows.forEach(row -> row.id = UUID.randomUUID());
+        chunkTransaction.executeWithoutResult(status -> {
+            Set<UUID> inserted = new HashSet<>();
+            jdbcTemplate.query(connection -> insertStatement(connection, rows),
+                    rs -> {
+                        inserted.add(rs.getObject("id", UUID.class));
+                    });
+
+            List<UUID> created = new ArrayList<>(inserted.size());
+            for (Row row : rows) {
+                if (!inserted.contains(row.id)) {
+                    results[row.index] = ProductImportResult.builder()
+                            .line(row.line)
+                            .status(ProductImportResult.Status.DUPLICATE)
+                            .sku(row.sku)
+                            .error("Product with the same sku or slug was created concurrently")
+                            .build();
+                    continue;
+                }
+                results[row.index] = ProductImportResult.builder()
+                        .line(row.line)
+                        .status(ProductImportResult.Status.CREATED)
+                        .id(row.id)
+                        .sku(row.sku)
+                        .slug(row.slug)
+                        .build();
+                created.add(row.id);
+            }
+            // Одно событие на чанк: кеши, поиск и NOTIFY обрабатывают id пачкой, а не по строке
+            if (!created.isEmpty()) {
+                eventPublisher.publishEvent(new ProductsBulkChangedEvent(created, ProductChangeType.CREATED));
+            }
+        });
+    }
+
+    private PreparedStatement insertStatement(Connection connection, List<Row> rows) throws SQLException {
+        int size = rows.size();
+        Object[] ids = new Object[size];
+        Object[] skus = new Object[size];
+        Object[] names = new Object[size];
+        Object[] slugs = new Object[size];
+        Object[] descriptions = new Object[size];
+        Object[] brands = new Object[size];
+        Object[] categories = new Object[size];
+        Object[] prices = new Object[size];
+        Object[] compareAtPrices = new Object[size];
+        Object[] statuses = new Object[size];
+        Object[] attributes = new Object[size];
+        Object[] images = new Object[size];
+        for (int i = 0; i < size; i++) {
+            Row row = rows.get(i);
+            ProductCreateRequest request = row.request;
+            ids[i] = row.id;
+            skus[i] = row.sku;
+            names[i] = request.getName();
+            slugs[i] = row.slug;
+            descriptions[i] = request.getDescription();
+            brands[i] = request.getBrandName();
+            categories[i] = row.category.id();
+            prices[i] = request.getPrice();
+            compareAtPrices[i] = request.getCompareAtPrice();
+            statuses[i] = row.status().name();
+            attributes[i] = request.getAttributes() != null
+                    ? jsonMapper.writeValueAsString(request.getAttributes()) : null;
+            images[i] = request.getImages() != null
+                    ? jsonMapper.writeValueAsString(productMapper.toImageMaps(request.getImages())) : null;
+        }
+
+        PreparedStatement statement = connection.prepareStatement(INSERT_SQL);
+        Array[] arrays = {
+                connection.createArrayOf("uuid", ids),
+                connection.createArrayOf("text", skus),
+                connection.createArrayOf("text", names),
+                connection.createArrayOf("text", slugs),
+                connection.createArrayOf("text", descriptions),
+                connection.createArrayOf("text", brands),
+                connection.createArrayOf("uuid", categories),
+                connection.createArrayOf("numeric", prices),
+                connection.createArrayOf("numeric", compareAtPrices),
+                connection.createArrayOf("text", statuses),
+                connection.createArrayOf("text", attributes),
+                connection.createArrayOf("text", images)
+        };
+        for (int i = 0; i < arrays.length; i++) {
+            statement.setArray(i + 1, arrays[i]);
+        }
+        return statement;
+    }
+
+    private static ProductImportResult invalid(int line, String error) {
+        return ProductImportResult.builder()
+                .line(line)
+                .status(ProductImportResult.Status.INVALID)
+                .error(error)
+                .build();
+    }
+
+    private record Line(int number, String text) {
+    }
+
+    private static final class Row {
+
+        private final int index;
+        private final int line;
+        private final ProductCreateRequest request;
+        private CategoryNode category;
+        private ProductStatus status;
+        private UUID id;
+        private String sku;
+        private String slug;
+
+        private Row(int index, int line, ProductCreateRequest request) {
+            this.index = index;
+            this.line = line;
+            this.request = request;
+        }
+
+        ProductStatus status() {
+            return status != null ? status : ProductStatus.DRAFT;
+        }
+    }
+}
@@ -1,30 +1,70 @@
 package kg.kazbekov.productservice.service;
 
+import kg.kazbekov.productservice.cache.CategoryNode;
+import kg.kazbekov.productservice.cache.CategoryTreeCache;
+import kg.kazbekov.productservice.cache.ProductCache;
+import kg.kazbekov.productservice.cache.ProductCountCache;
+import kg.kazbekov.productservice.cache.ProductJsonCache;
+import kg.kazbekov.productservice.cache.ProductFacetCache;
 import kg.kazbekov.productservice.dto.PageMeta;
 import kg.kazbekov.productservice.dto.PagedResponse;
+import kg.kazbekov.productservice.dto.ResourceVersion;
+import kg.kazbekov.productservice.dto.product.ProductBatchGetResponse;
+import kg.kazbekov.productservice.dto.product.ProductBulkPriceUpdateRequest;
+import kg.kazbekov.productservice.dto.product.ProductBulkSelector;
+import kg.kazbekov.productservice.dto.product.ProductBulkStatusUpdateRequest;
+import kg.kazbekov.productservice.dto.product.ProductBulkUpdateResponse;
 import kg.kazbekov.productservice.dto.product.ProductCreateRequest;
+import kg.kazbekov.productservice.dto.product.ProductCursor;
+import kg.kazbekov.productservice.dto.product.ProductFacets;
+import kg.kazbekov.productservice.dto.product.ProductField;
+import kg.kazbekov.productservice.dto.product.ProductFilter;
+import kg.kazbekov.productservice.dto.product.ProductListItem;
 import kg.kazbekov.productservice.dto.product.ProductResponse;
+import kg.kazbekov.productservice.dto.product.ProductSort;
 import kg.kazbekov.productservice.dto.product.ProductStatusUpdateRequest;
 import kg.kazbekov.productservice.dto.product.ProductUpdateRequest;
+import kg.kazbekov.productservice.dto.product.ProductVersion;
+import kg.kazbekov.productservice.dto.product.TotalCountMode;
+import kg.kazbekov.productservice.dto.review.RatingAggregate;
+import kg.kazbekov.productservice.event.ProductChangeType;
+import kg.kazbekov.productservice.event.ProductChangedEvent;
+import kg.kazbekov.productservice.event.ProductsBulkChangedEvent;
 import kg.kazbekov.productservice.exception.DuplicateResourceException;
 import kg.kazbekov.productservice.exception.ResourceNotFoundException;
 import kg.kazbekov.productservice.mapper.ProductMapper;
 import kg.kazbekov.productservice.model.Category;
 import kg.kazbekov.productservice.model.Product;
 import kg.kazbekov.productservice.model.ProductStatus;
+import kg.kazbekov.productservice.model.ProductTombstone;
 import kg.kazbekov.productservice.repository.CategoryRepository;
 import kg.kazbekov.productservice.repository.ProductRepository;
+import kg.kazbekov.productservice.repository.ProductTombstoneRepository;
+import kg.kazbekov.productservice.util.SkuUtil;
 import kg.kazbekov.productservice.util.SlugUtil;
+import kg.kazbekov.productservice.util.SqlStateUtil;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -32,47 +72,261 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductTombstoneRepository productTombstoneRepository;
     private final ProductMapper productMapper;
+    private final ProductCountCache productCountCache;
+    private final ProductFacetCache productFacetCache;
+    private final ProductCache productCache;
+    private final ProductJsonCache productJsonCache;
+    private final CategoryTreeCache categoryTreeCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${product.facets.price-bounds:50,100,250,500,1000}")
+    private List<BigDecimal> facetPriceBounds;
+
+    @Value("${product.facets.max-attributes:10}")
+    private int maxFacetAttributes;
+
+    @Value("${product.batch-get.max-items:200}")
+    private int maxBatchGetItems;
+
+    @Value("${product.slug.max-attempts:3}")
+    private int maxSlugAttempts;
 
     @Transactional(readOnly = true)
-    public PagedResponse<ProductResponse> getProducts(int page, int limit, UUID categoryId,
-                                                       ProductStatus status, String search, String sort) {
+    public PagedResponse<ProductResponse> getProducts(ProductFilter filter, int page, int limit,
+                                                       String cursor, String sort, TotalCountMode totalMode,
+                                                       Set<ProductField> fields) {
+        ProductSort productSort = ProductSort.parse(sort);
+        if (cursor != null) {
+            return getProductsAfterCursor(filter, productSort != null ? productSort : ProductSort.NEWEST,
+                    limit, cursor, totalMode, fields);
+        }
+
         Pageable pageable = PageRequest.of(page - 1, limit);
-        String statusStr = status != null ? status.name() : null;
-        Page<Product> productPage = productRepository.findWithFilters(categoryId, statusStr, search, pageable);
+        List<ProductListItem> products = productRepository.findListItems(filter, productSort, fields, pageable);
 
         return PagedResponse.of(
-                productMapper.toResponseList(productPage.getContent()),
-                PageMeta.of(page, limit, productPage.getTotalElements())
+                productMapper.toResponseList(products, fields),
+                PageMeta.of(page, limit, countProducts(filter, totalMode), totalMode == TotalCountMode.EXACT)
         );
     }
 
+    private Long countProducts(ProductFilter filter, TotalCountMode totalMode) {
+        ProductFilter key = filter.normalized();
+        return switch (totalMode) {
+            case NONE -> null;
+            case EXACT -> {
+                long count = productRepository.countWithFilters(key);
+                productCountCache.put(key, count);
+                yield count;
+            }
+            case ESTIMATE -> productCountCache.get(key, productRepository::estimateCountWithFilters);
+        };
+    }
+
+    private PagedResponse<ProductResponse> getProductsAfterCursor(ProductFilter filter, ProductSort sort, int limit,
+                                                                  String cursor, TotalCountMode totalMode,
+                                                                  Set<ProductField> fields) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+
+        ProductCursor after = cursor.isBlank() ? null : ProductCursor.decode(cursor, sort);
+        List<ProductListItem> products = productRepository.findListItemsAfter(filter, sort, fields, after,
+                limit + 1);
+
+        boolean hasNext = products.size() > limit;
+        if (hasNext) {
+            products = products.subList(0, limit);
+        }
+        String nextCursor = hasNext ? ProductCursor.of(sort, products.get(limit - 1)).encode() : null;
+
+        PageMeta meta = PageMeta.ofCursor(limit, nextCursor);
+        Long totalCount = countProducts(filter, totalMode);
+        if (totalCount != null) {
+            meta.setTotalCount(totalCount);
+            meta.setTotalExact(totalMode == TotalCountMode.EXACT);
+        }
+
+        return PagedResponse.of(productMapper.toResponseList(products, fields), meta);
+    }
+
     @Transactional(readOnly = true)
+    public ProductFacets getFacets(ProductFilter filter, List<String> attributeKeys) {
+        List<String> keys = attributeKeys == null ? List.of() : attributeKeys.stream()
+                .map(String::trim)
+                .filter(key -> !key.isEmpty())
+                .distinct()
+                .toList();
+        if (keys.size() > maxFacetAttributes) {
+            throw new IllegalArgumentException("At most " + maxFacetAttributes + " attribute facets are allowed");
+        }
+        ProductFilter key = filter.normalized();
+        return productFacetCache.get(key, keys,
+                () -> productRepository.aggregateFacets(key, keys, facetPriceBounds));
+    }
+
     public ProductResponse getProductById(UUID id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
-        return productMapper.toResponse(product);
+        ProductResponse product = productCache.getById(id, this::loadProduct);
+        if (product == null) {
+            throw new ResourceNotFoundException("Product", "id", id);
+        }
+        return product;
     }
 
-    @Transactional(readOnly = true)
     public ProductResponse getProductBySlug(String slug) {
-        Product product = productRepository.findBySlug(slug)
+        ProductResponse product = productCache.getBySlug(slug,
+                productSlug -> productRepository.findIdBySlug(productSlug).orElse(null),
+                this::loadProduct);
+        if (product == null) {
+            throw new ResourceNotFoundException("Product", "slug", slug);
+        }
+        return product;
+    }
+
+    private ProductResponse loadProduct(UUID id) {
+        return productRepository.findWithCategoryById(id)
+                .map(productMapper::toResponse)
+                .orElse(null);
+    }
+
+    // Один запрос на все промахи кеша вместо цикла GET /{id}; ненайденные возвращаются в ответе
+    public ProductBatchGetResponse getProductsBatch(List<UUID> ids, List<String> slugs) {
+        Set<UUID> requestedIds = ids == null ? Set.of() : new LinkedHashSet<>(ids);
+        Set<String> requestedSlugs = slugs == null ? Set.of() : new LinkedHashSet<>(slugs);
+        if (requestedIds.isEmpty() && requestedSlugs.isEmpty()) {
+            throw new IllegalArgumentException("Either ids or slugs are required");
+        }
+        if (requestedIds.size() + requestedSlugs.size() > maxBatchGetItems) {
+            throw new IllegalArgumentException("At most " + maxBatchGetItems + " ids and slugs are allowed");
+        }
+
+        Map<UUID, ProductResponse> byId = new HashMap<>(productCache.getAllPresent(requestedIds));
+        List<UUID> missedIds = requestedIds.stream().filter(id -> !byId.containsKey(id)).toList();
+        if (!missedIds.isEmpty()) {
+            productRepository.findWithCategoryByIdIn(missedIds).stream()
+                    .map(productMapper::toResponse)
+                    .forEach(product -> byId.put(product.getId(), product));
+        }
+
+        Map<String, ProductResponse> bySlug = new HashMap<>();
+        List<String> missedSlugs = new ArrayList<>();
+        for (String slug : requestedSlugs) {
+            ProductResponse cached = productCache.getIfPresentBySlug(slug);
+            if (cached != null) {
+                bySlug.put(slug, cached);
+            } else {
+                missedSlugs.add(slug);
+            }
+        }
+        if (!missedSlugs.isEmpty()) {
+            productRepository.findWithCategoryBySlugIn(missedSlugs).stream()
+                    .map(productMapper::toResponse)
+                    .forEach(product -> bySlug.put(product.getSlug(), product));
+        }
+
+        List<ProductResponse> products = new ArrayList<>(requestedIds.size() + requestedSlugs.size());
+        List<UUID> missingIds = new ArrayList<>();
+        List<String> missingSlugs = new ArrayList<>();
+        requestedIds.forEach(id -> {
+            ProductResponse product = byId.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        });
+        requestedSlugs.forEach(slug -> {
+            ProductResponse product = bySlug.get(slug);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missingSlugs.add(slug);
+            }
+        });
+
+        return ProductBatchGetResponse.builder()
+                .products(products)
+                .missingIds(missingIds)
+                .missingSlugs(missingSlugs)
+                .build();
+    }
+
+    public ProductJsonCache.SerializedProduct getSerializedProduct(UUID id) {
+        return productJsonCache.get(id, productId -> {
+            ProductResponse product = getProductById(productId);
+            return productJsonCache.serialize(product, versionOf(product).toResourceVersion(), true);
+        });
+    }
+
+    // Кешированный JSON несёт свой ETag: при попадании версия товара не пересчитывается
+    public ProductJsonCache.SerializedProduct getCachedSerializedProduct(UUID id) {
+        return productJsonCache.getIfPresent(id);
+    }
+
+    // Варианты с fields/рейтингом не кешируются: из кеша товара берётся проекция,
+    // иначе читаются только запрошенные колонки
+    public ProductJsonCache.SerializedProduct getSerializedProduct(UUID id, Set<ProductField> fields,
+                                                                   RatingAggregate rating, ResourceVersion version) {
+        ProductResponse cached = productCache.getIfPresent(id);
+        ProductResponse product = cached != null
+                ? productMapper.project(cached, fields)
+                : productRepository.findListItem(id, fields)
+                        .map(item -> productMapper.toResponse(item, fields))
+                        .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        if (rating != null) {
+            product.setRating(productMapper.toRatingInfo(rating));
+        }
+        return productJsonCache.serialize(product, version, false);
+    }
+
+    public RatingAggregate getRating(UUID id) {
+        return productRepository.findRatingById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+    }
+
+    public ProductVersion getProductVersion(UUID id) {
+        ProductResponse cached = productCache.getIfPresent(id);
+        if (cached != null) {
+            return versionOf(cached);
+        }
+        return productRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+    }
+
+    public ProductVersion getProductVersionBySlug(String slug) {
+        ProductResponse cached = productCache.getIfPresentBySlug(slug);
+        if (cached != null) {
+            return versionOf(cached);
+        }
+        return productRepository.findVersionBySlug(slug)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "slug", slug));
-        return productMapper.toResponse(product);
     }
 
-    @Transactional
+    public ProductVersion versionOf(ProductResponse product) {
+        OffsetDateTime categoryUpdatedAt = product.getCategory() == null ? null : categoryTreeCache.get()
+                .node(product.getCategory().getId())
+                .map(CategoryNode::updatedAt)
+                .orElse(null);
+        return new ProductVersion(product.getId(), product.getUpdatedAt(), categoryUpdatedAt);
+    }
+
     public ProductResponse createProduct(ProductCreateRequest request) {
+        return withSlugRetry(() -> insertProduct(request));
+    }
+
+    private ProductResponse insertProduct(ProductCreateRequest request) {
         Category category = categoryRepository.findById(request.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", request.getCategoryId()));
 
-        String sku = request.getSku() != null ? request.getSku() : generateSku();
+        String sku = request.getSku() != null ? request.getSku() : SkuUtil.generate();
         if (productRepository.existsBySku(sku)) {
             throw new DuplicateResourceException("Product", "sku", sku);
         }
 
-        String slug = SlugUtil.toSlug(request.getName());
-        slug = ensureUniqueSlug(slug, null);
+        String slug = productRepository.nextAvailableSlug(SlugUtil.toSlug(request.getName()));
 
         Product product = new Product();
         product.setSku(sku);
@@ -90,28 +344,37 @@ public class ProductService {
         }
 
         if (request.getImages() != null) {
-            product.setImages(request.getImages().stream()
-                    .map(img -> Map.of(
-                            "url", img.getUrl(),
-                            "alt", img.getAlt() != null ? img.getAlt() : "",
-                            "primary", String.valueOf(img.getPrimary())
-                    ))
-                    .toList());
+            product.setImages(productMapper.toImageMaps(request.getImages()));
         }
 
-        product = productRepository.save(product);
-        return productMapper.toResponse(product);
+        try {
+            product = productRepository.saveAndFlush(product);
+        } catch (DataIntegrityViolationException e) {
+            // SKU занят параллельной вставкой между existsBySku и INSERT
+            if (SqlStateUtil.isUniqueViolation(e, "sku")) {
+                throw new DuplicateResourceException("Product", "sku", sku);
+            }
+            throw e;
+        }
+        ProductResponse response = productMapper.toResponse(product);
+        eventPublisher.publishEvent(ProductChangedEvent.created(response));
+        return response;
     }
 
-    @Transactional
     public ProductResponse updateProduct(UUID id, ProductUpdateRequest request) {
+        return withSlugRetry(() -> applyUpdate(id, request));
+    }
+
+    private ProductResponse applyUpdate(UUID id, ProductUpdateRequest request) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        String previousSlug = product.getSlug();
+        BigDecimal previousPrice = product.getPrice();
+        BigDecimal previousCompareAtPrice = product.getCompareAtPrice();
 
         if (request.getName() != null) {
+            product.setSlug(renameSlug(product, SlugUtil.toSlug(request.getName())));
             product.setName(request.getName());
-            String newSlug = SlugUtil.toSlug(request.getName());
-            product.setSlug(ensureUniqueSlug(newSlug, id));
         }
 
         if (request.getDescription() != null) {
@@ -141,17 +404,17 @@ public class ProductService {
         }
 
         if (request.getImages() != null) {
-            product.setImages(request.getImages().stream()
-                    .map(img -> Map.of(
-                            "url", img.getUrl(),
-                            "alt", img.getAlt() != null ? img.getAlt() : "",
-                            "primary", String.valueOf(img.getPrimary())
-                    ))
-                    .toList());
+            product.setImages(productMapper.toImageMaps(request.getImages()));
         }
 
-        product = productRepository.save(product);
-        return productMapper.toResponse(product);
+        product = productRepository.saveAndFlush(product);
+        ProductResponse response = productMapper.toResponse(product);
+        boolean priceChanged = !sameAmount(previousPrice, product.getPrice())
+                || !sameAmount(previousCompareAtPrice, product.getCompareAtPrice());
+        eventPublisher.publishEvent(priceChanged
+                ? ProductChangedEvent.priceChanged(response, previousSlug)
+                : ProductChangedEvent.updated(response, previousSlug));
+        return response;
     }
 
     @Transactional
@@ -160,35 +423,109 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
 
         product.setStatus(request.getStatus());
-        product = productRepository.save(product);
+        // updated_at выставляет БД: flush возвращает его в сущность до сборки ответа
+        product = productRepository.saveAndFlush(product);
 
-        return productMapper.toResponse(product);
+        ProductResponse response = productMapper.toResponse(product);
+        eventPublisher.publishEvent(ProductChangedEvent.statusChanged(response));
+        return response;
     }
 
     @Transactional
-    public void deleteProduct(UUID id) {
-        if (!productRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Product", "id", id);
+    public ProductBulkUpdateResponse bulkUpdateStatus(ProductBulkStatusUpdateRequest request) {
+        ProductBulkSelector selector = request.getSelector();
+        requireSelection(selector);
+        List<UUID> ids = productRepository.bulkUpdateStatus(selector.toFilter(), selector.getIds(),
+                request.getStatus());
+        return bulkUpdated(ids, ProductChangeType.STATUS_CHANGED);
+    }
+
+    @Transactional
+    public ProductBulkUpdateResponse bulkUpdatePrices(ProductBulkPriceUpdateRequest request) {
+        ProductBulkSelector selector = request.getSelector();
+        requireSelection(selector);
+        if (request.getPrice() != null && request.getPriceMultiplier() != null) {
+            throw new IllegalArgumentException("Either price or price_multiplier may be set, not both");
         }
-        productRepository.deleteById(id);
+        if (request.getCompareAtPrice() != null && request.isClearCompareAtPrice()) {
+            throw new IllegalArgumentException("Either compare_at_price or clear_compare_at_price may be set, not both");
+        }
+        if (request.getPrice() == null && request.getPriceMultiplier() == null
+                && request.getCompareAtPrice() == null && !request.isClearCompareAtPrice()) {
+            throw new IllegalArgumentException("No price change requested");
+        }
+        List<UUID> ids;
+        try {
+            ids = productRepository.bulkUpdatePrices(selector.toFilter(), selector.getIds(),
+                    request.getPrice(), request.getPriceMultiplier(), request.getCompareAtPrice(),
+                    request.isClearCompareAtPrice());
+        } catch (DataAccessException e) {
+            // Множитель вывел цену какого-то товара за пределы numeric(12,2): откатываем всю выборку
+            if (SqlStateUtil.isNumericValueOutOfRange(e)) {
+                throw new IllegalArgumentException("Price multiplier makes a product price exceed the allowed range");
+            }
+            throw e;
+        }
+        return bulkUpdated(ids, ProductChangeType.PRICE_CHANGED);
     }
 
-    private String generateSku() {
-        return "SKU-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    private void requireSelection(ProductBulkSelector selector) {
+        // Пустой селектор затронул бы весь каталог
+        if (selector.isEmpty()) {
+            throw new IllegalArgumentException("Selector must contain ids or at least one filter");
+        }
     }
 
-    private String ensureUniqueSlug(String baseSlug, UUID excludeId) {
-        String slug = baseSlug;
-        int counter = 1;
+    // Кеши инвалидируются одним событием на всю выборку после коммита
+    private ProductBulkUpdateResponse bulkUpdated(List<UUID> ids, ProductChangeType type) {
+        if (!ids.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsBulkChangedEvent(ids, type));
+        }
+        return ProductBulkUpdateResponse.builder()
+                .updated(ids.size())
+                .ids(ids)
+                .build();
+    }
 
-        while (true) {
-            var existing = productRepository.findBySlug(slug);
-            if (existing.isEmpty() || (excludeId != null && existing.get().getId().equals(excludeId))) {
-                break;
+    @Transactional
+    public void deleteProduct(UUID id) {
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        ProductTombstone tombstone = new ProductTombstone();
+        tombstone.setProductId(id);
+        tombstone.setSku(product.getSku());
+        tombstone.setSlug(product.getSlug());
+        productTombstoneRepository.save(tombstone);
+        productRepository.delete(product);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    // Свободный slug выбирается до записи, поэтому параллельный create/rename с тем же именем
+    // может занять его первым: уникальный индекс отклоняет запись, и попытка целиком повторяется
+    // в новой транзакции с новым выбором номера
+    private ProductResponse withSlugRetry(Supplier<ProductResponse> action) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.execute(status -> action.get());
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= maxSlugAttempts || !SqlStateUtil.isUniqueViolation(e, "slug")) {
+                    throw e;
+                }
             }
-            slug = baseSlug + "-" + counter++;
         }
+    }
 
-        return slug;
+    // Слаг перевыделяется, только если меняется его основа: правка регистра или пунктуации
+    // в названии сохраняет текущий slug (в том числе с номером). Вызывается до setName
+    private String renameSlug(Product product, String baseSlug) {
+        if (SlugUtil.toSlug(product.getName()).equals(baseSlug)) {
+            return product.getSlug();
+        }
+        return productRepository.nextAvailableSlug(baseSlug);
     }
 }
@@ -0,0 +1,128 @@
+package kg.kazbekov.productservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+public class RatingReconciliationService {
+
+    // Диапазоны UUID по первому байту: каждый пересчитывается в своей короткой транзакции
+    private static final int CHUNKS = 256;
+
+    private static final String LOCK_CHUNK = "SELECT COUNT(*) FROM (SELECT 1 FROM products WHERE id >= ? AND id < ? FOR UPDATE) locked";
+
+    private static final String LOCK_LAST_CHUNK = "SELECT COUNT(*) FROM (SELECT 1 FROM products WHERE id >= ? FOR UPDATE) locked";
+
+    private static final String RECONCILE_CHUNK = """
+            UPDATE products p SET
+                rating_sum = a.rating_sum,
+                rating_count = a.rating_count,
+                rating_histogram = a.rating_histogram,
+                rating_avg = CASE WHEN a.rating_count > 0
+                    THEN round(CAST(a.rating_sum AS numeric) / a.rating_count, 4)
+                    ELSE 0 END
+            FROM (
+                SELECT pr.id,
+                       COALESCE(SUM(r.rating), 0) AS rating_sum,
+                       COUNT(r.id) AS rating_count,
+                       ARRAY[
+                           COUNT(r.id) FILTER (WHERE r.rating = 1),
+                           COUNT(r.id) FILTER (WHERE r.rating = 2),
+                           COUNT(r.id) FILTER (WHERE r.rating = 3),
+                           COUNT(r.id) FILTER (WHERE r.rating = 4),
+                           COUNT(r.id) FILTER (WHERE r.rating = 5)
+                       ]::integer[] AS rating_histogram
+                FROM products pr
+                LEFT JOIN reviews r ON r.product_id = pr.id
+                WHERE %s
+                GROUP BY pr.id
+            ) a
+            WHERE p.id = a.id
+              AND (p.rating_sum, p.rating_count, p.rating_histogram)
+                  IS DISTINCT FROM (a.rating_sum, a.rating_count, a.rating_histogram)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final int parallelism;
+    private final boolean runOnStartup;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public RatingReconciliationService(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${product.rating-reconciliation.parallelism:4}") int parallelism,
+                                       @Value("${product.rating-reconciliation.on-startup:false}") boolean runOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.parallelism = parallelism;
+        this.runOnStartup = runOnStartup;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        // READ COMMITTED: агрегат читается новым снимком уже после блокировки строк диапазона,
+        // поэтому параллельные инкременты из ReviewService не теряются
+        this.chunkTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (runOnStartup) {
+            Thread.ofPlatform().name("rating-reconciliation-startup").daemon().start(this::reconcile);
+        }
+    }
+
+    @Scheduled(cron = "${product.rating-reconciliation.cron:0 30 3 * * *}")
+    public void reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Rating reconciliation is already running, skipping");
+            return;
+        }
+        long started = System.currentTimeMillis();
+        AtomicLong corrected = new AtomicLong();
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            List<CompletableFuture<Void>> chunks = new ArrayList<>(CHUNKS);
+            for (int chunk = 0; chunk < CHUNKS; chunk++) {
+                int current = chunk;
+                chunks.add(CompletableFuture.runAsync(() -> corrected.addAndGet(reconcileChunk(current)), executor));
+            }
+            CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+            log.info("Rating reconciliation finished: {} products corrected in {} ms",
+                    corrected.get(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Rating reconciliation failed after {} corrections", corrected.get(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int reconcileChunk(int chunk) {
+        UUID from = new UUID((long) chunk << 56, 0);
+        boolean last = chunk == CHUNKS - 1;
+        UUID to = last ? null : new UUID((long) (chunk + 1) << 56, 0);
+
+        Integer updated = chunkTransaction.execute(tx -> {
+            if (last) {
+                jdbcTemplate.queryForObject(LOCK_LAST_CHUNK, Long.class, from);
+                return jdbcTemplate.update(RECONCILE_CHUNK.formatted("pr.id >= ?"), from);
+            }
+            jdbcTemplate.queryForObject(LOCK_CHUNK, Long.class, from, to);
+            return jdbcTemplate.update(RECONCILE_CHUNK.formatted("pr.id >= ? AND pr.id < ?"), from, to);
+        });
+        return updated != null ? updated : 0;
+    }
+}
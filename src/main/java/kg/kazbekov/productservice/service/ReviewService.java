@@ -3,21 +3,28 @@ package kg.kazbekov.productservice.service;
 import kg.kazbekov.productservice.dto.PageMeta;
 import kg.kazbekov.productservice.dto.PagedResponse;
 import kg.kazbekov.productservice.dto.review.ProductRatingResponse;
+import kg.kazbekov.productservice.dto.review.RatingAggregate;
 import kg.kazbekov.productservice.dto.review.ReviewCreateRequest;
 import kg.kazbekov.productservice.dto.review.ReviewResponse;
 import kg.kazbekov.productservice.exception.DuplicateResourceException;
 import kg.kazbekov.productservice.exception.ResourceNotFoundException;
 import kg.kazbekov.productservice.mapper.ReviewMapper;
-import kg.kazbekov.productservice.model.Product;
 import kg.kazbekov.productservice.model.Review;
 import kg.kazbekov.productservice.repository.ProductRepository;
 import kg.kazbekov.productservice.repository.ReviewRepository;
+import kg.kazbekov.productservice.util.SqlStateUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -47,43 +54,70 @@ public class ReviewService {
 
     @Transactional
     public ReviewResponse createReview(UUID productId, ReviewCreateRequest request) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
-
-        if (reviewRepository.existsByProductIdAndUserId(productId, request.getUserId())) {
-            throw new DuplicateResourceException("User already reviewed this product");
-        }
-
+        // Товар не читается: его существование и повторный отзыв проверяют внешний ключ
+        // и уникальный индекс (product_id, user_id) при самой вставке
         Review review = new Review();
-        review.setProduct(product);
+        review.setProduct(productRepository.getReferenceById(productId));
         review.setUserId(request.getUserId());
         review.setRating(request.getRating());
         review.setComment(request.getComment());
 
-        review = reviewRepository.save(review);
+        try {
+            review = reviewRepository.saveAndFlush(review);
+        } catch (DataIntegrityViolationException e) {
+            if (SqlStateUtil.isUniqueViolation(e, "product_id, user_id")) {
+                throw new DuplicateResourceException("User already reviewed this product");
+            }
+            if (SqlStateUtil.isForeignKeyViolation(e, "product_id")) {
+                throw new ResourceNotFoundException("Product", "id", productId);
+            }
+            throw e;
+        }
+        productRepository.applyRatingDelta(productId, review.getRating(), 1);
         return reviewMapper.toResponse(review);
     }
 
     @Transactional
     public void deleteReview(UUID reviewId) {
-        if (!reviewRepository.existsById(reviewId)) {
+        if (reviewRepository.deleteAndDecrementRating(reviewId) == 0) {
             throw new ResourceNotFoundException("Review", "id", reviewId);
         }
-        reviewRepository.deleteById(reviewId);
     }
 
     @Transactional(readOnly = true)
     public ProductRatingResponse getProductRating(UUID productId) {
-        if (!productRepository.existsById(productId)) {
-            throw new ResourceNotFoundException("Product", "id", productId);
+        return productRepository.findRatingById(productId)
+                .map(ReviewService::toRatingResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+    }
+
+    @Transactional(readOnly = true)
+    public Map<UUID, ProductRatingResponse> getProductRatings(List<UUID> productIds) {
+        Map<UUID, ProductRatingResponse> found = new HashMap<>();
+        for (RatingAggregate rating : productRepository.findRatingsByIdIn(new HashSet<>(productIds))) {
+            found.put(rating.productId(), toRatingResponse(rating));
         }
 
-        Double avgRating = reviewRepository.getAverageRatingByProductId(productId);
-        Long totalReviews = reviewRepository.countByProductId(productId);
+        Map<UUID, ProductRatingResponse> ratings = new LinkedHashMap<>();
+        for (UUID productId : productIds) {
+            ProductRatingResponse rating = found.get(productId);
+            if (rating != null) {
+                ratings.put(productId, rating);
+            }
+        }
+        return ratings;
+    }
+
+    private static ProductRatingResponse toRatingResponse(RatingAggregate rating) {
+        Map<Integer, Long> distribution = new LinkedHashMap<>();
+        for (int stars = 1; stars <= rating.histogram().length; stars++) {
+            distribution.put(stars, (long) rating.histogram()[stars - 1]);
+        }
 
         return ProductRatingResponse.builder()
-                .averageRating(avgRating != null ? Math.round(avgRating * 10) / 10.0 : null)
-                .totalReviews(totalReviews)
+                .averageRating(rating.averageRating())
+                .totalReviews((long) rating.count())
+                .distribution(distribution)
                 .build();
     }
 }
@@ -0,0 +1,14 @@
+package kg.kazbekov.productservice.util;
+
+import java.util.Locale;
+import java.util.UUID;
+
+public final class SkuUtil {
+
+    private SkuUtil() {
+    }
+
+    public static String generate() {
+        return "SKU-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase(Locale.ROOT);
+    }
+}
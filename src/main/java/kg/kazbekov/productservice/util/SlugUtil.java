@@ -1,7 +1,12 @@
 package kg.kazbekov.productservice.util;
 
 import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 public final class SlugUtil {
@@ -27,4 +32,28 @@ public final class SlugUtil {
 
         return slug;
     }
+
+    // count свободных slug для основы base: сначала сама основа, затем наименьшие свободные номера base-N.
+    // takenSuffixes — занятые суффиксы, пустая строка означает занятую основу
+    public static List<String> freeSlugs(String base, Collection<String> takenSuffixes, int count) {
+        List<String> slugs = new ArrayList<>(count);
+        Set<Integer> taken = new HashSet<>();
+        boolean baseTaken = false;
+        for (String suffix : takenSuffixes) {
+            if (suffix.isEmpty()) {
+                baseTaken = true;
+            } else {
+                taken.add(Integer.parseInt(suffix));
+            }
+        }
+        if (!baseTaken && count > 0) {
+            slugs.add(base);
+        }
+        for (int number = 1; slugs.size() < count; number++) {
+            if (!taken.contains(number)) {
+                slugs.add(base + "-" + number);
+            }
+        }
+        return slugs;
+    }
 }
@@ -0,0 +1,70 @@
+package kg.kazbekov.productservice.util;
+
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+
+import java.sql.SQLException;
+
+public final class SqlStateUtil {
+
+    public static final String UNIQUE_VIOLATION = "23505";
+    public static final String FOREIGN_KEY_VIOLATION = "23503";
+    public static final String NUMERIC_VALUE_OUT_OF_RANGE = "22003";
+
+    private SqlStateUtil() {
+    }
+
+    // Spring и Hibernate оборачивают исходную ошибку драйвера; при батчинге она лежит в getNextException
+    public static SQLException findSqlException(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof SQLException sqlException) {
+                return sqlException;
+            }
+        }
+        return null;
+    }
+
+    public static String sqlState(Throwable error) {
+        for (SQLException current = findSqlException(error); current != null; current = current.getNextException()) {
+            if (current.getSQLState() != null) {
+                return current.getSQLState();
+            }
+        }
+        return null;
+    }
+
+    public static boolean isUniqueViolation(Throwable error) {
+        return UNIQUE_VIOLATION.equals(sqlState(error));
+    }
+
+    public static boolean isNumericValueOutOfRange(Throwable error) {
+        return NUMERIC_VALUE_OUT_OF_RANGE.equals(sqlState(error));
+    }
+
+    public static boolean isForeignKeyViolation(Throwable error) {
+        return FOREIGN_KEY_VIOLATION.equals(sqlState(error));
+    }
+
+    // Имена ограничений из @Column(unique = true) генерируются Hibernate, поэтому колонка
+    // определяется по detail PostgreSQL: "Key (slug)=(...) already exists."
+    public static boolean isUniqueViolation(Throwable error, String column) {
+        return isUniqueViolation(error) && violatesColumn(error, column);
+    }
+
+    public static boolean isForeignKeyViolation(Throwable error, String column) {
+        return isForeignKeyViolation(error) && violatesColumn(error, column);
+    }
+
+    private static boolean violatesColumn(Throwable error, String column) {
+        for (SQLException current = findSqlException(error); current != null; current = current.getNextException()) {
+            if (current instanceof PSQLException psqlException) {
+                ServerErrorMessage message = psqlException.getServerErrorMessage();
+                String detail = message != null ? message.getDetail() : null;
+                if (detail != null) {
+                    return detail.startsWith("Key (" + column + ")=");
+                }
+            }
+        }
+        return false;
+    }
+}
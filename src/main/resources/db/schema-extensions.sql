@@ -0,0 +1,73 @@
+-- ==============================================
+-- Дополнения к схеме, которые Hibernate (ddl-auto=update) создать не умеет.
+-- Выполняется после Hibernate при каждом старте, все команды идемпотентны.
+-- ==============================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Полнотекстовый поиск: название (A), бренд (B), описание (C)
+ALTER TABLE products
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('simple'::regconfig, coalesce(name, '')), 'A') ||
+            setweight(to_tsvector('simple'::regconfig, coalesce(brand_name, '')), 'B') ||
+            setweight(to_tsvector('simple'::regconfig, coalesce(description, '')), 'C')
+        ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING gin (search_vector);
+
+-- Поиск подстроки в названии (ILIKE '%x%')
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING gin (name gin_trgm_ops);
+
+-- Фильтры по атрибутам (attributes @> '{"color": "red"}')
+CREATE INDEX IF NOT EXISTS idx_products_attributes ON products USING gin (attributes jsonb_path_ops);
+
+-- Товары со скидкой ("on sale"): частичный индекс по ценовому диапазону внутри категории
+CREATE INDEX IF NOT EXISTS idx_products_on_sale_category_price ON products (category_id, price, id)
+    WHERE compare_at_price > price;
+CREATE INDEX IF NOT EXISTS idx_products_on_sale_price ON products (price, id)
+    WHERE compare_at_price > price;
+
+-- Подбор свободного slug: диапазон по префиксу (slug ~>=~ 'x-' AND slug ~<~ 'x.') независимо от collation
+CREATE INDEX IF NOT EXISTS idx_products_slug_pattern ON products (slug text_pattern_ops);
+
+-- Разовые заполнения данных: запись в таблице означает, что заполнение уже выполнено
+CREATE TABLE IF NOT EXISTS schema_backfills (
+    name       varchar(100) PRIMARY KEY,
+    applied_at timestamptz NOT NULL DEFAULT now()
+);
+
+-- Агрегаты рейтинга на существующей базе: ddl-auto=update добавляет rating_* с нулями,
+-- поэтому один раз пересчитываем их по reviews. Маркер и UPDATE в одном запросе (одна транзакция)
+WITH pending AS (
+    INSERT INTO schema_backfills (name) VALUES ('product_rating_aggregates')
+    ON CONFLICT (name) DO NOTHING
+    RETURNING name
+)
+UPDATE products p SET
+    rating_sum = a.rating_sum,
+    rating_count = a.rating_count,
+    rating_histogram = a.rating_histogram,
+    rating_avg = round(CAST(a.rating_sum AS numeric) / a.rating_count, 4)
+FROM (
+    SELECT product_id,
+           SUM(rating) AS rating_sum,
+           COUNT(*) AS rating_count,
+           CAST(ARRAY[
+               COUNT(*) FILTER (WHERE rating = 1),
+               COUNT(*) FILTER (WHERE rating = 2),
+               COUNT(*) FILTER (WHERE rating = 3),
+               COUNT(*) FILTER (WHERE rating = 4),
+               COUNT(*) FILTER (WHERE rating = 5)
+           ] AS integer[]) AS rating_histogram
+    FROM reviews
+    GROUP BY product_id
+) a
+WHERE p.id = a.product_id
+  AND EXISTS (SELECT 1 FROM pending);
+
+-- Один отзыв на пользователя и товар. ReviewService полагается на этот индекс вместо проверки
+-- перед вставкой. Если в базе уже есть дубли, создание индекса падает с ошибкой
+-- "could not create unique index uk_reviews_product_user ... is duplicated" и приложение не стартует:
+-- найдите и удалите дубли вручную скриптом scripts/dedupe_reviews.sql (сохраняет удалённые отзывы в резервную таблицу)
+CREATE UNIQUE INDEX IF NOT EXISTS uk_reviews_product_user ON reviews (product_id, user_id);
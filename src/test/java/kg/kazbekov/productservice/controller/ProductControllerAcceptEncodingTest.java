@@ -0,0 +1,48 @@
+package kg.kazbekov.productservice.controller;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductControllerAcceptEncodingTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "gzip",
+            "gzip, deflate, br",
+            "br;q=1.0, gzip;q=0.8",
+            "GZIP;Q=0.5",
+            "x-gzip",
+            "*",
+            "deflate, *;q=0.1",
+            "*;q=0, gzip",
+            "gzip ; q=0.001"
+    })
+    void acceptsGzip(String acceptEncoding) {
+        assertThat(ProductController.acceptsGzip(acceptEncoding)).isTrue();
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "gzip;q=0",
+            "gzip; q=0.0",
+            "gzip;q=0, *",
+            "*;q=0",
+            "identity",
+            "identity;q=1, *;q=0",
+            "deflate, br",
+            "gzipx",
+            "gzip;q=abc"
+    })
+    void rejectsGzip(String acceptEncoding) {
+        assertThat(ProductController.acceptsGzip(acceptEncoding)).isFalse();
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    void rejectsMissingHeader(String acceptEncoding) {
+        assertThat(ProductController.acceptsGzip(acceptEncoding)).isFalse();
+    }
+}
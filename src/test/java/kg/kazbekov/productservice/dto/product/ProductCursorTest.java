@@ -0,0 +1,89 @@
+package kg.kazbekov.productservice.dto.product;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCursorTest {
+
+    private static final UUID ID = UUID.fromString("5b0c1c2e-8f3e-4d0a-9b7c-1e2f3a4b5c6d");
+
+    @Test
+    void roundTripsEverySortField() {
+        OffsetDateTime createdAt = OffsetDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000, ZoneOffset.ofHours(6));
+        ProductListItem item = item(new BigDecimal("19.90"), "Phone | Case", new BigDecimal("4.2500"), createdAt);
+
+        for (ProductSort.Field field : ProductSort.Field.values()) {
+            for (boolean ascending : new boolean[]{true, false}) {
+                ProductSort sort = new ProductSort(field, ascending);
+                ProductCursor cursor = ProductCursor.of(sort, item);
+
+                ProductCursor decoded = ProductCursor.decode(cursor.encode(), sort);
+
+                assertThat(decoded).isEqualTo(cursor);
+                assertThat(decoded.id()).isEqualTo(ID);
+            }
+        }
+    }
+
+    @Test
+    void decodesTypedValues() {
+        OffsetDateTime createdAt = OffsetDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000, ZoneOffset.ofHours(6));
+        ProductListItem item = item(new BigDecimal("19.90"), "Phone | Case", new BigDecimal("4.2500"), createdAt);
+
+        assertThat(decode(ProductSort.Field.PRICE, item).typedValue()).isEqualTo(new BigDecimal("19.90"));
+        assertThat(decode(ProductSort.Field.NAME, item).typedValue()).isEqualTo("Phone | Case");
+        assertThat(decode(ProductSort.Field.RATING, item).typedValue()).isEqualTo(new BigDecimal("4.2500"));
+        assertThat((OffsetDateTime) decode(ProductSort.Field.CREATED_AT, item).typedValue())
+                .isEqualTo(createdAt.withOffsetSameInstant(ZoneOffset.UTC));
+    }
+
+    @Test
+    void rejectsCursorIssuedForAnotherSort() {
+        ProductSort priceAsc = new ProductSort(ProductSort.Field.PRICE, true);
+        String cursor = ProductCursor.of(priceAsc, item(BigDecimal.TEN, "x", BigDecimal.ZERO, null)).encode();
+
+        assertThatThrownBy(() -> ProductCursor.decode(cursor, new ProductSort(ProductSort.Field.PRICE, false)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor was issued for sort 'price:asc'");
+        assertThatThrownBy(() -> ProductCursor.decode(cursor, ProductSort.NEWEST))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("price:asc");
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        ProductSort sort = new ProductSort(ProductSort.Field.PRICE, true);
+
+        assertThatThrownBy(() -> ProductCursor.decode("***", sort)).hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> ProductCursor.decode(encode("price:asc|" + ID), sort)).hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> ProductCursor.decode(encode("price:asc|not-a-uuid|10"), sort))
+                .hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> ProductCursor.decode(encode("price:asc|" + ID + "|ten"), sort))
+                .hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> ProductCursor.decode(encode("created_at:desc|" + ID + "|yesterday"),
+                ProductSort.NEWEST)).hasMessage("Invalid cursor");
+    }
+
+    private static ProductCursor decode(ProductSort.Field field, ProductListItem item) {
+        ProductSort sort = new ProductSort(field, true);
+        return ProductCursor.decode(ProductCursor.of(sort, item).encode(), sort);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ProductListItem item(BigDecimal price, String name, BigDecimal ratingAvg, OffsetDateTime createdAt) {
+        return new ProductListItem(ID, null, name, null, null, null, price, null, null, null, null, null,
+                null, null, ratingAvg, null, null, createdAt != null ? createdAt : OffsetDateTime.now(), null);
+    }
+}
@@ -0,0 +1,54 @@
+package kg.kazbekov.productservice.dto.product;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductSortTest {
+
+    @Test
+    void parsesFieldAndDirection() {
+        assertThat(ProductSort.parse("price:desc")).isEqualTo(new ProductSort(ProductSort.Field.PRICE, false));
+        assertThat(ProductSort.parse(" Name:ASC ")).isEqualTo(new ProductSort(ProductSort.Field.NAME, true));
+        assertThat(ProductSort.parse("rating:asc")).isEqualTo(new ProductSort(ProductSort.Field.RATING, true));
+    }
+
+    @Test
+    void defaultsDirectionPerField() {
+        assertThat(ProductSort.parse("price").ascending()).isTrue();
+        assertThat(ProductSort.parse("name").ascending()).isTrue();
+        assertThat(ProductSort.parse("created_at")).isEqualTo(ProductSort.NEWEST);
+        assertThat(ProductSort.parse("rating").ascending()).isFalse();
+    }
+
+    @Test
+    void returnsNullWithoutSort() {
+        assertThat(ProductSort.parse(null)).isNull();
+        assertThat(ProductSort.parse("  ")).isNull();
+    }
+
+    @Test
+    void rejectsUnknownFieldOrDirection() {
+        assertThatThrownBy(() -> ProductSort.parse("description"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unsupported sort field: description");
+        assertThatThrownBy(() -> ProductSort.parse("price:up"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unsupported sort direction: up");
+        // Выражение сортировки подставляется в SQL только из белого списка
+        assertThatThrownBy(() -> ProductSort.parse("p.price; DROP TABLE products"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void buildsOrderAndSeekOnTheSameKey() {
+        ProductSort sort = new ProductSort(ProductSort.Field.RATING, false);
+
+        assertThat(sort.key()).isEqualTo("rating:desc");
+        assertThat(sort.orderBy()).isEqualTo(" ORDER BY p.rating_avg DESC, p.id DESC");
+        assertThat(sort.seekPredicate()).isEqualTo("(p.rating_avg, p.id) < (:cursorValue, :cursorId)");
+        assertThat(ProductSort.parse("price:asc").seekPredicate())
+                .isEqualTo("(p.price, p.id) > (:cursorValue, :cursorId)");
+    }
+}
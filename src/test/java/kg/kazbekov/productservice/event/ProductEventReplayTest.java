@@ -0,0 +1,62 @@
+package kg.kazbekov.productservice.event;
+
+import kg.kazbekov.productservice.dto.product.ProductStreamEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductEventReplayTest {
+
+    private ProductEventReplay replay;
+
+    @BeforeEach
+    void createReplay() {
+        replay = new ProductEventReplay("ep", 3);
+    }
+
+    @Test
+    void replaysEventsAfterLastEventIdInOrder() {
+        List<ProductEventReplay.Envelope> sent = appendEvents(3);
+
+        assertThat(replay.eventId(sent.get(0))).isEqualTo("ep-1");
+        assertThat(replay.after("ep-1")).containsExactly(sent.get(1), sent.get(2));
+        assertThat(replay.after("ep-3")).isEmpty();
+    }
+
+    @Test
+    void replaysNothingForLatestIdOfEmptyHistory() {
+        assertThat(replay.after("ep-0")).isEmpty();
+    }
+
+    @Test
+    void requiresResyncWhenEventsWereEvicted() {
+        List<ProductEventReplay.Envelope> sent = appendEvents(5);
+
+        assertThat(replay.after("ep-1")).isNull();
+        assertThat(replay.after("ep-2")).containsExactlyElementsOf(sent.subList(2, 5));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"other-1", "ep-4", "ep-x", "ep-", "-1", "ep", "1"})
+    void requiresResyncForForeignOrUnknownId(String lastEventId) {
+        appendEvents(2);
+
+        assertThat(replay.after(lastEventId)).isNull();
+    }
+
+    private List<ProductEventReplay.Envelope> appendEvents(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> replay.append(ProductStreamEvent.builder()
+                        .id(UUID.randomUUID())
+                        .type(ProductChangeType.UPDATED)
+                        .build()))
+                .toList();
+    }
+}
@@ -0,0 +1,69 @@
+package kg.kazbekov.productservice.repository;
+
+import kg.kazbekov.productservice.PostgresIntegrationTest;
+import kg.kazbekov.productservice.dto.product.ProductCreateRequest;
+import kg.kazbekov.productservice.dto.product.ProductFacets;
+import kg.kazbekov.productservice.dto.product.ProductFilter;
+import kg.kazbekov.productservice.model.Category;
+import kg.kazbekov.productservice.model.ProductStatus;
+import kg.kazbekov.productservice.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductFacetsAggregationTest extends PostgresIntegrationTest {
+
+    private static final BigDecimal TEN = new BigDecimal("10");
+    private static final BigDecimal FIFTY = new BigDecimal("50");
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void countsEveryFacetInOneGroupingSetsQuery() {
+        Category category = new Category();
+        category.setName("Facets");
+        category.setSlug("facets-" + UUID.randomUUID());
+        UUID categoryId = categoryRepository.save(category).getId();
+
+        create(categoryId, "Apple", "5.00", "ACTIVE", Map.of("color", "red"));
+        create(categoryId, "Apple", "20.00", "ACTIVE", Map.of("color", "red"));
+        create(categoryId, "Samsung", "20.00", "DRAFT", Map.of("color", "blue"));
+        create(categoryId, null, "60.00", "ACTIVE", Map.of());
+
+        ProductFacets facets = productRepository.aggregateFacets(
+                ProductFilter.builder().categoryId(categoryId).build(), List.of("color"), List.of(TEN, FIFTY));
+
+        assertThat(facets.getBrands()).containsExactly(Map.entry("Apple", 2L), Map.entry("Samsung", 1L));
+        assertThat(facets.getStatuses()).containsOnly(
+                Map.entry(ProductStatus.ACTIVE, 3L), Map.entry(ProductStatus.DRAFT, 1L));
+        assertThat(facets.getPriceRanges()).containsExactly(
+                new ProductFacets.PriceRange(null, TEN, 1),
+                new ProductFacets.PriceRange(TEN, FIFTY, 2),
+                new ProductFacets.PriceRange(FIFTY, null, 1));
+        assertThat(facets.getAttributes()).containsExactly(Map.entry("color", Map.of("red", 2L, "blue", 1L)));
+    }
+
+    private void create(UUID categoryId, String brand, String price, String status, Map<String, Object> attributes) {
+        productService.createProduct(ProductCreateRequest.builder()
+                .name("Facet item " + UUID.randomUUID())
+                .brandName(brand)
+                .price(new BigDecimal(price))
+                .status(status)
+                .attributes(attributes)
+                .categoryId(categoryId)
+                .build());
+    }
+}
@@ -0,0 +1,72 @@
+package kg.kazbekov.productservice.repository;
+
+import kg.kazbekov.productservice.dto.product.ProductFacets;
+import kg.kazbekov.productservice.model.ProductStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductFacetsDecodingTest {
+
+    private static final BigDecimal TEN = new BigDecimal("10");
+    private static final BigDecimal FIFTY = new BigDecimal("50");
+
+    @Test
+    void routesRowsToFacetByGroupingFlags() {
+        // GROUPING(brand), GROUPING(price_bucket), GROUPING(status), GROUPING(attr0), значения, COUNT(*)
+        List<Object[]> rows = List.of(
+                new Object[]{0, 1, 1, 1, "Apple", null, null, null, 3L},
+                new Object[]{1, 1, 0, 1, null, null, "ACTIVE", null, 5L},
+                new Object[]{1, 0, 1, 1, null, 2, null, null, 4L},
+                new Object[]{1, 1, 1, 0, null, null, null, "red", 2L},
+                new Object[]{1, 0, 1, 1, null, 0, null, null, 1L},
+                new Object[]{0, 1, 1, 1, "Samsung", null, null, null, 1L},
+                new Object[]{1, 1, 0, 1, null, null, "DRAFT", null, 1L},
+                new Object[]{1, 0, 1, 1, null, 1, null, null, 1L});
+
+        ProductFacets facets = ProductRepositoryCustomImpl.decodeFacets(rows, List.of("color"), List.of(TEN, FIFTY));
+
+        assertThat(facets.getBrands()).containsExactly(Map.entry("Apple", 3L), Map.entry("Samsung", 1L));
+        assertThat(facets.getStatuses())
+                .containsExactly(Map.entry(ProductStatus.ACTIVE, 5L), Map.entry(ProductStatus.DRAFT, 1L));
+        assertThat(facets.getPriceRanges()).containsExactly(
+                new ProductFacets.PriceRange(null, TEN, 1),
+                new ProductFacets.PriceRange(TEN, FIFTY, 1),
+                new ProductFacets.PriceRange(FIFTY, null, 4));
+        assertThat(facets.getAttributes()).containsExactly(Map.entry("color", Map.of("red", 2L)));
+    }
+
+    @Test
+    void skipsNullValuesOfGroupedColumn() {
+        // Товары без бренда или без атрибута образуют в своём наборе группу со значением NULL
+        List<Object[]> rows = List.of(
+                new Object[]{0, 1, 1, 1, null, null, null, null, 7L},
+                new Object[]{1, 1, 1, 0, null, null, null, null, 6L},
+                new Object[]{0, 1, 1, 1, "Apple", null, null, null, 1L});
+
+        ProductFacets facets = ProductRepositoryCustomImpl.decodeFacets(rows, List.of("color"), List.of(TEN));
+
+        assertThat(facets.getBrands()).containsExactly(Map.entry("Apple", 1L));
+        assertThat(facets.getAttributes()).containsExactly(Map.entry("color", Map.of()));
+        assertThat(facets.getPriceRanges()).isEmpty();
+        assertThat(facets.getStatuses()).isEmpty();
+    }
+
+    @Test
+    void decodesAttributeSetsByPositionAndOmitsAttributesWhenNotRequested() {
+        List<Object[]> rows = List.of(
+                new Object[]{1, 1, 1, 1, 0, null, null, null, null, "128GB", 4L},
+                new Object[]{1, 1, 1, 0, 1, null, null, null, "red", null, 3L});
+
+        ProductFacets facets = ProductRepositoryCustomImpl.decodeFacets(rows, List.of("color", "memory"), List.of());
+
+        assertThat(facets.getAttributes()).containsExactly(
+                Map.entry("color", Map.of("red", 3L)),
+                Map.entry("memory", Map.of("128GB", 4L)));
+        assertThat(ProductRepositoryCustomImpl.decodeFacets(List.of(), List.of(), List.of()).getAttributes()).isNull();
+    }
+}
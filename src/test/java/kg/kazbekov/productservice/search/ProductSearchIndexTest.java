@@ -0,0 +1,112 @@
+package kg.kazbekov.productservice.search;
+
+import kg.kazbekov.productservice.model.ProductStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private static final UUID PHONES = UUID.randomUUID();
+    private static final UUID CASES = UUID.randomUUID();
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @Test
+    void intersectsPostingsOfAllTerms() {
+        ProductSearchIndex.Document iphone = put("iPhone 15 Pro", "Apple", ProductStatus.ACTIVE, PHONES);
+        put("Galaxy S24", "Samsung", ProductStatus.ACTIVE, PHONES);
+        ProductSearchIndex.Document iphoneCase = put("iPhone 15 Case", "Apple", ProductStatus.ACTIVE, CASES);
+        put("MacBook Pro", "Apple", ProductStatus.ACTIVE, null);
+
+        assertThat(ids(index.search("apple iphone", null, null, 0, 10)))
+                .containsExactly(iphoneCase.id(), iphone.id());
+        assertThat(ids(index.search("iphone pro", null, null, 0, 10))).containsExactly(iphone.id());
+        assertThat(index.search("iphone nokia", null, null, 0, 10).totalCount()).isZero();
+        assertThat(index.search("  ", null, null, 0, 10).totalCount()).isZero();
+    }
+
+    @Test
+    void filtersByStatusAndCategoryAndPagesFromNewest() {
+        ProductSearchIndex.Document first = put("Phone One", "Acme", ProductStatus.ACTIVE, PHONES);
+        put("Phone Two", "Acme", ProductStatus.DRAFT, PHONES);
+        ProductSearchIndex.Document third = put("Phone Three", "Acme", ProductStatus.ACTIVE, PHONES);
+        put("Phone Case", "Acme", ProductStatus.ACTIVE, CASES);
+
+        ProductSearchIndex.Result active = index.search("phone", ProductStatus.ACTIVE, PHONES, 0, 10);
+        assertThat(active.totalCount()).isEqualTo(2);
+        assertThat(ids(active)).containsExactly(third.id(), first.id());
+
+        ProductSearchIndex.Result secondPage = index.search("phone", null, null, 1, 2);
+        assertThat(secondPage.totalCount()).isEqualTo(4);
+        assertThat(secondPage.documents()).hasSize(2);
+        assertThat(index.search("phone", null, UUID.randomUUID(), 0, 10).totalCount()).isZero();
+    }
+
+    @Test
+    void reindexesUpdatedDocumentUnderNewTerms() {
+        ProductSearchIndex.Document original = put("Old Name", "Brand", ProductStatus.ACTIVE, PHONES);
+        index.put(new ProductSearchIndex.Document(original.id(), "New Name", "new-name", "Brand",
+                BigDecimal.TEN, ProductStatus.DISCONTINUED, CASES));
+
+        assertThat(index.search("old", null, null, 0, 10).totalCount()).isZero();
+        assertThat(ids(index.search("new", ProductStatus.DISCONTINUED, CASES, 0, 10))).containsExactly(original.id());
+        assertThat(index.search("new", ProductStatus.ACTIVE, null, 0, 10).totalCount()).isZero();
+        assertThat(index.documentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void compactsAfterManyRemovalsKeepingOrderAndFilters() {
+        List<ProductSearchIndex.Document> documents = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            documents.add(put("Widget " + (i % 2 == 0 ? "even" : "odd"), "Acme",
+                    i % 3 == 0 ? ProductStatus.ACTIVE : ProductStatus.DRAFT, i % 5 == 0 ? PHONES : CASES));
+        }
+        // 2000 удалений из 3000: срабатывает уплотнение ordinals
+        for (int i = 0; i < 3000; i++) {
+            if (i % 3 != 0) {
+                index.remove(documents.get(i).id());
+            }
+        }
+
+        assertThat(index.documentCount()).isEqualTo(1000);
+        List<UUID> expected = new ArrayList<>();
+        for (int i = 2997; i >= 0; i -= 3) {
+            if (i % 2 == 0 && i % 5 == 0) {
+                expected.add(documents.get(i).id());
+            }
+        }
+        ProductSearchIndex.Result result = index.search("widget even", ProductStatus.ACTIVE, PHONES, 0, 1000);
+        assertThat(ids(result)).containsExactlyElementsOf(expected);
+        assertThat(index.search("widget", ProductStatus.DRAFT, null, 0, 10).totalCount()).isZero();
+
+        ProductSearchIndex.Document added = put("Widget even", "Acme", ProductStatus.ACTIVE, PHONES);
+        assertThat(ids(index.search("widget even", ProductStatus.ACTIVE, PHONES, 0, 1)))
+                .containsExactly(added.id());
+    }
+
+    @Test
+    void removingUnknownIdIsNoOp() {
+        put("Lamp", "Ikea", ProductStatus.ACTIVE, null);
+        index.remove(UUID.randomUUID());
+
+        assertThat(index.documentCount()).isEqualTo(1);
+        assertThat(index.termCount()).isEqualTo(2);
+    }
+
+    private ProductSearchIndex.Document put(String name, String brand, ProductStatus status, UUID categoryId) {
+        ProductSearchIndex.Document document = new ProductSearchIndex.Document(UUID.randomUUID(), name,
+                name.toLowerCase().replace(' ', '-'), brand, BigDecimal.ONE, status, categoryId);
+        index.put(document);
+        return document;
+    }
+
+    private static List<UUID> ids(ProductSearchIndex.Result result) {
+        return result.documents().stream().map(ProductSearchIndex.Document::id).toList();
+    }
+}
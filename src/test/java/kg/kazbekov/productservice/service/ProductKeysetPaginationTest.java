@@ -0,0 +1,92 @@
+package kg.kazbekov.productservice.service;
+
+import kg.kazbekov.productservice.PostgresIntegrationTest;
+import kg.kazbekov.productservice.dto.PagedResponse;
+import kg.kazbekov.productservice.dto.product.ProductCreateRequest;
+import kg.kazbekov.productservice.dto.product.ProductField;
+import kg.kazbekov.productservice.dto.product.ProductFilter;
+import kg.kazbekov.productservice.dto.product.ProductResponse;
+import kg.kazbekov.productservice.dto.product.TotalCountMode;
+import kg.kazbekov.productservice.model.Category;
+import kg.kazbekov.productservice.repository.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductKeysetPaginationTest extends PostgresIntegrationTest {
+
+    private static final int PRODUCTS = 23;
+    private static final int PAGE = 5;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private ProductFilter filter;
+
+    @BeforeEach
+    void createProducts() {
+        Category category = new Category();
+        category.setName("Keyset");
+        category.setSlug("keyset-" + UUID.randomUUID());
+        category = categoryRepository.save(category);
+        filter = ProductFilter.builder().categoryId(category.getId()).build();
+
+        // Три цены и повторяющиеся названия: порядок внутри равных значений держится на id
+        for (int i = 0; i < PRODUCTS; i++) {
+            productService.createProduct(ProductCreateRequest.builder()
+                    .name("Keyset item " + (char) ('a' + i % 4))
+                    .price(new BigDecimal(List.of("9.99", "19.99", "29.99").get(i % 3)))
+                    .categoryId(category.getId())
+                    .status("ACTIVE")
+                    .build());
+        }
+    }
+
+    @Test
+    void cursorWalkMatchesOffsetOrderForEverySort() {
+        for (String sort : List.of("price:asc", "price:desc", "name:asc", "name:desc", "created_at:desc",
+                "created_at:asc", "rating:desc")) {
+            List<UUID> expected = ids(productService.getProducts(filter, 1, 100, null, sort, TotalCountMode.NONE,
+                    ProductField.CARD));
+
+            List<UUID> walked = new ArrayList<>();
+            String cursor = "";
+            while (cursor != null) {
+                PagedResponse<ProductResponse> page = productService.getProducts(filter, 1, PAGE, cursor, sort,
+                        TotalCountMode.NONE, ProductField.CARD);
+                assertThat(page.getData()).hasSizeLessThanOrEqualTo(PAGE);
+                walked.addAll(ids(page));
+                cursor = page.getMeta().getNextCursor();
+            }
+
+            assertThat(walked).as(sort).hasSize(PRODUCTS).doesNotHaveDuplicates().containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void rejectsCursorFromAnotherSort() {
+        String cursor = productService.getProducts(filter, 1, PAGE, "", "price:asc", TotalCountMode.NONE,
+                ProductField.CARD).getMeta().getNextCursor();
+
+        assertThat(cursor).isNotNull();
+        assertThatThrownBy(() -> productService.getProducts(filter, 1, PAGE, cursor, "name:asc",
+                TotalCountMode.NONE, ProductField.CARD))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("price:asc");
+    }
+
+    private static List<UUID> ids(PagedResponse<ProductResponse> page) {
+        return page.getData().stream().map(ProductResponse::getId).toList();
+    }
+}
@@ -0,0 +1,107 @@
+package kg.kazbekov.productservice.service;
+
+import kg.kazbekov.productservice.PostgresIntegrationTest;
+import kg.kazbekov.productservice.dto.product.ProductCreateRequest;
+import kg.kazbekov.productservice.dto.product.ProductResponse;
+import kg.kazbekov.productservice.dto.product.ProductUpdateRequest;
+import kg.kazbekov.productservice.model.Category;
+import kg.kazbekov.productservice.repository.CategoryRepository;
+import kg.kazbekov.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSlugAllocationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private UUID categoryId;
+    private String name;
+    private String base;
+
+    @BeforeEach
+    void createCategory() {
+        Category category = new Category();
+        category.setName("Slugs");
+        category.setSlug("slugs-" + UUID.randomUUID());
+        categoryId = categoryRepository.save(category).getId();
+        // Своя основа на каждый тест, чтобы не зависеть от товаров других тестов
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        name = "Phone " + tag;
+        base = "phone-" + tag;
+    }
+
+    @Test
+    void numbersCollisionsAndReusesGaps() {
+        assertThat(create(name).getSlug()).isEqualTo(base);
+        assertThat(create(name).getSlug()).isEqualTo(base + "-1");
+        ProductResponse second = create(name);
+        assertThat(second.getSlug()).isEqualTo(base + "-2");
+        assertThat(create(name).getSlug()).isEqualTo(base + "-3");
+
+        productService.deleteProduct(second.getId());
+
+        assertThat(create(name).getSlug()).isEqualTo(base + "-2");
+        assertThat(create(name).getSlug()).isEqualTo(base + "-4");
+    }
+
+    @Test
+    void ignoresSlugsThatOnlyShareThePrefix() {
+        create(name);
+        create(name + " Case");
+        create(name + " 15 Pro");
+
+        assertThat(productRepository.nextAvailableSlug(base)).isEqualTo(base + "-1");
+        assertThat(productRepository.nextAvailableSlug(base + "-case")).isEqualTo(base + "-case-1");
+        assertThat(productRepository.nextAvailableSlug("free-" + base)).isEqualTo("free-" + base);
+    }
+
+    @Test
+    void allocatesSeveralBasesInOneCall() {
+        create(name);
+        create(name);
+
+        Map<String, List<String>> slugs =
+                productRepository.nextAvailableSlugs(Map.of(base, 2, base + "-new", 2));
+
+        assertThat(slugs.get(base)).containsExactly(base + "-2", base + "-3");
+        assertThat(slugs.get(base + "-new")).containsExactly(base + "-new", base + "-new-1");
+    }
+
+    @Test
+    void keepsSlugWhenRenameDoesNotChangeItsBase() {
+        create(name);
+        ProductResponse numbered = create(name);
+        assertThat(numbered.getSlug()).isEqualTo(base + "-1");
+
+        ProductResponse sameBase = productService.updateProduct(numbered.getId(),
+                ProductUpdateRequest.builder().name(name.toUpperCase() + "!").build());
+        assertThat(sameBase.getSlug()).isEqualTo(base + "-1");
+
+        ProductResponse renamed = productService.updateProduct(numbered.getId(),
+                ProductUpdateRequest.builder().name("Tablet " + name).build());
+        assertThat(renamed.getSlug()).isEqualTo("tablet-" + base);
+    }
+
+    private ProductResponse create(String productName) {
+        return productService.createProduct(ProductCreateRequest.builder()
+                .name(productName)
+                .price(BigDecimal.TEN)
+                .categoryId(categoryId)
+                .build());
+    }
+}
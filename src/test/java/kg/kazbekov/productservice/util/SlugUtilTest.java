@@ -0,0 +1,44 @@
+package kg.kazbekov.productservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlugUtilTest {
+
+    @Test
+    void buildsSlugFromName() {
+        assertThat(SlugUtil.toSlug("  iPhone 15 Pro  Max ")).isEqualTo("iphone-15-pro-max");
+        assertThat(SlugUtil.toSlug("Café Crème")).isEqualTo("cafe-creme");
+        assertThat(SlugUtil.toSlug(null)).isEmpty();
+    }
+
+    @Test
+    void takesBaseWhenFree() {
+        assertThat(SlugUtil.freeSlugs("phone", List.of(), 1)).containsExactly("phone");
+        assertThat(SlugUtil.freeSlugs("phone", List.of("1", "2"), 1)).containsExactly("phone");
+    }
+
+    @Test
+    void takesSmallestFreeNumberWhenBaseTaken() {
+        assertThat(SlugUtil.freeSlugs("phone", List.of(""), 1)).containsExactly("phone-1");
+        assertThat(SlugUtil.freeSlugs("phone", List.of("", "1", "2", "4"), 1)).containsExactly("phone-3");
+        assertThat(SlugUtil.freeSlugs("phone", List.of("", "2", "3"), 1)).containsExactly("phone-1");
+    }
+
+    @Test
+    void fillsGapsBeforeAppendingForSeveralSlugs() {
+        assertThat(SlugUtil.freeSlugs("phone", List.of("", "1", "3", "6"), 4))
+                .containsExactly("phone-2", "phone-4", "phone-5", "phone-7");
+        assertThat(SlugUtil.freeSlugs("phone", Set.of("2"), 3)).containsExactly("phone", "phone-1", "phone-3");
+        assertThat(SlugUtil.freeSlugs("phone", List.of(""), 0)).isEmpty();
+    }
+
+    @Test
+    void ignoresDuplicateSuffixes() {
+        assertThat(SlugUtil.freeSlugs("phone", List.of("", "", "1", "1"), 2)).containsExactly("phone-2", "phone-3");
+    }
+}